@@ -0,0 +1,172 @@
+/**
+ * AccessLog.java; Persistent count of how often each card is looked up.
+ *
+ * Counts live in memory and are flushed to a small text file periodically and at shutdown, so the
+ * next process can warm its cache with the cards that are actually requested (see CacheWarmer).
+ * Only the maxEntries most requested cards are written, one per line:
+ *
+ *   # deckdiffer access log v1
+ *   1843	sol ring
+ *   1201	arcane signet
+ *
+ * The file is replaced atomically, so a crash mid-flush leaves the previous log intact.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class AccessLog {
+
+    private static final String HEADER = "# deckdiffer access log v1";
+
+    private final Path path;
+    private final int maxEntries;
+
+    // Lowercase canonical card name -> lookups, including those loaded from the previous log
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor; // guarded by this
+
+    /**
+     * @param path - file the log is read from and flushed to
+     * @param maxEntries - number of most requested cards kept in the file
+     */
+    public AccessLog(Path path, int maxEntries) {
+        this.path = path;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Counts one lookup of a card
+     *
+     * @param key - lowercase canonical card name
+     */
+    public void record(String key) {
+        AtomicLong count = counts.get(key);
+        if (count == null) {
+            // Rough bound between flushes; a flush trims the map back down
+            if (counts.size() >= maxEntries * 2) {
+                return;
+            }
+            count = counts.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Adds the counts stored in the log file. A missing file is not an error.
+     */
+    public void load() {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                try {
+                    long count = Long.parseLong(line.substring(0, tab));
+                    counts.computeIfAbsent(line.substring(tab + 1), k -> new AtomicLong()).addAndGet(count);
+                }
+                catch (NumberFormatException e) {
+                    // Skip the damaged line, keep the rest
+                }
+            }
+        }
+        catch (NoSuchFileException e) {
+            // First start; nothing logged yet
+        }
+        catch (IOException e) {
+            System.err.println("Failed to read access log " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the log on a background daemon thread, and once more at shutdown. Calling it again has no effect.
+     *
+     * @param intervalMillis - time between flushes
+     */
+    public synchronized void startFlushing(long intervalMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-access-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "card-access-log-shutdown"));
+    }
+
+    /**
+     * Writes the most requested cards to the log file, replacing it atomically
+     */
+    public synchronized void flush() {
+        List<Map.Entry<String, Long>> top = topEntries(maxEntries);
+
+        try {
+            Path absolute = path.toAbsolutePath();
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                    for (Map.Entry<String, Long> entry : top) {
+                        writer.write(entry.getValue() + "\t" + entry.getKey());
+                        writer.newLine();
+                    }
+                }
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Failed to write access log " + path + ": " + e.getMessage());
+        }
+
+        // Forget the long tail that did not make it into the file
+        if (counts.size() > maxEntries) {
+            counts.keySet().retainAll(top.stream().map(Map.Entry::getKey).toList());
+        }
+    }
+
+    /**
+     * @param k - number of names wanted
+     * @return the k most requested card names, most requested first
+     */
+    public List<String> topNames(int k) {
+        return topEntries(k).stream().map(Map.Entry::getKey).toList();
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private List<Map.Entry<String, Long>> topEntries(int k) {
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(counts.size());
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            ranked.add(Map.entry(entry.getKey(), entry.getValue().get()));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return ranked.size() > k ? ranked.subList(0, k) : ranked;
+    }
+}
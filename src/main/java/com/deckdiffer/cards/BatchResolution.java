@@ -0,0 +1,58 @@
+/**
+ * BatchResolution.java; Outcome of resolving a set of requested card names against /cards/collection.
+ *
+ * Every requested name ends up in exactly one of found, notFound or failed:
+ * - found: Scryfall returned the card (possibly under a different canonical spelling, see aliases)
+ * - notFound: Scryfall listed the name in the response's not_found array
+ * - failed: the request for the name's batch failed, so nothing is known about it
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.deckdiffer.cards.ScryfallCardDecoder.DecodedCard;
+
+public final class BatchResolution {
+
+    // Requested name -> decoded Scryfall card
+    public final Map<String, DecodedCard> found;
+
+    // Requested names Scryfall reported as not found
+    public final Set<String> notFound;
+
+    // Requested name -> canonical Scryfall name, for names whose spelling differs from the canonical one
+    public final Map<String, String> aliases;
+
+    // Requested names whose batch request failed
+    public final Set<String> failed;
+
+    public BatchResolution(Map<String, DecodedCard> found, Set<String> notFound, Map<String, String> aliases, Set<String> failed) {
+        this.found = found;
+        this.notFound = notFound;
+        this.aliases = aliases;
+        this.failed = failed;
+    }
+
+    /**
+     * @return an empty, mutable resolution for accumulating results
+     */
+    static BatchResolution empty() {
+        return new BatchResolution(new HashMap<>(), new HashSet<>(), new HashMap<>(), new HashSet<>());
+    }
+
+    /**
+     * Adds another batch's outcome into this (mutable) resolution
+     *
+     * @param other - resolution of a different batch
+     */
+    void mergeFrom(BatchResolution other) {
+        found.putAll(other.found);
+        notFound.addAll(other.notFound);
+        aliases.putAll(other.aliases);
+        failed.addAll(other.failed);
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * BinaryCardCatalog.java; Memory-mapped CardCatalog read from a compiled ".bin" catalog file.
+ *
+ * The file is produced by CardCatalogCompiler and mapped read-only with FileChannel.map, so opening it
+ * costs a header check rather than a parse, and the OS page cache backing it is shared by every JVM
+ * on the host that maps the same file. CardData objects are decoded from their record on lookup.
+ *
+ * File layout (big-endian):
+ * - Header (HEADER_SIZE bytes): magic, version, record count, index slot count,
+ *   string table offset, index offset, epoch millis the prices date from
+ * - Records: fixed-width RECORD_SIZE entries, one per distinct card
+ * - String table: [unsigned short length][UTF-8 bytes] entries, referenced by byte offset
+ * - Name index: open-addressing hash table of (key string offset, record number) slots,
+ *   keyed by lowercase full and face names, probed linearly
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class BinaryCardCatalog implements CardCatalog {
+
+    // ---------------
+    // File Format
+    // ---------------
+
+    static final int MAGIC = 0x44444343; // "DDCC"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 40;
+
+    // Record layout, byte offsets within a record
+    static final int RECORD_SIZE = 40;
+    static final int REC_NAME = 0;          // int: string offset of canonical name
+    static final int REC_IMAGE_URL = 4;     // int: string offset, or NO_STRING
+    static final int REC_SCRYFALL_URL = 8;  // int: string offset, or NO_STRING
+    static final int REC_PRICE = 12;        // double: USD price
+    static final int REC_CMC = 20;          // float: converted mana cost
+    static final int REC_TYPES = 24;        // short: bit i set if TYPE_BITS[i] is a type of the card
+    static final int REC_COLORS = 26;       // byte: bit i set if COLOR_BITS[i] is in the color identity
+    static final int REC_PIPS = 27;         // 6 unsigned bytes: pip counts in PIP_ORDER
+
+    static final int INDEX_SLOT_SIZE = 8;
+    static final int NO_STRING = -1;
+
+    static final List<String> TYPE_BITS = List.of(
+        "Artifact", "Creature", "Enchantment", "Instant",
+        "Sorcery", "Land", "Planeswalker", "Battle", "Tribal"
+    );
+    static final List<String> COLOR_BITS = List.of("W", "U", "B", "R", "G");
+    static final List<String> PIP_ORDER = List.of("C", "W", "U", "B", "R", "G");
+
+    private final MappedByteBuffer buffer;
+    private final int recordCount;
+    private final int slotCount;
+    private final int stringTableOffset;
+    private final int indexOffset;
+    private final long pricesAsOf;
+
+    private BinaryCardCatalog(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a compiled card catalog");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported card catalog version " + version + " (expected " + VERSION + ")");
+        }
+
+        this.recordCount = buffer.getInt(8);
+        this.slotCount = buffer.getInt(12);
+        this.stringTableOffset = (int) buffer.getLong(16);
+        this.indexOffset = (int) buffer.getLong(24);
+        this.pricesAsOf = buffer.getLong(32);
+
+        if (Integer.bitCount(slotCount) != 1 || (long) indexOffset + (long) slotCount * INDEX_SLOT_SIZE > buffer.capacity()) {
+            throw new IOException("Corrupt card catalog header");
+        }
+    }
+
+    /**
+     * Memory-maps a compiled catalog file.
+     *
+     * @param catalogFile - path to a file written by CardCatalogCompiler
+     * @return catalog reading directly from the mapped file
+     * @throws IOException if the file cannot be mapped or has the wrong format
+     */
+    public static BinaryCardCatalog open(Path catalogFile) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Card catalog too large to map: " + catalogFile);
+            }
+            return new BinaryCardCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public CardData lookup(String cardName) {
+        if (cardName == null) return null;
+
+        byte[] key = cardName.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        int mask = slotCount - 1;
+        int slot = hash(key) & mask;
+
+        // Linear probe until the key or an empty slot is found
+        for (int probes = 0; probes < slotCount; probes++) {
+            int slotPos = indexOffset + slot * INDEX_SLOT_SIZE;
+            int keyRef = buffer.getInt(slotPos);
+
+            if (keyRef == NO_STRING) {
+                return null;
+            }
+            if (stringEquals(keyRef, key)) {
+                return decodeRecord(buffer.getInt(slotPos + 4));
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return recordCount;
+    }
+
+    @Override
+    public void forEachName(Consumer<String> action) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            int keyRef = buffer.getInt(indexOffset + slot * INDEX_SLOT_SIZE);
+            if (keyRef != NO_STRING) {
+                action.accept(readString(keyRef));
+            }
+        }
+    }
+
+    @Override
+    public long pricesAsOf() {
+        return pricesAsOf;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * FNV-1a over the UTF-8 bytes of a lowercase key; shared with CardCatalogCompiler.
+     *
+     * @param key - UTF-8 bytes of the lowercase card name
+     * @return 32-bit hash
+     */
+    static int hash(byte[] key) {
+        int h = 0x811c9dc5;
+        for (byte b : key) {
+            h ^= (b & 0xff);
+            h *= 0x01000193;
+        }
+        return h;
+    }
+
+    /**
+     * Builds a CardData view of record number recordIdx
+     *
+     * @param recordIdx - record number
+     * @return CardData decoded from the record
+     */
+    private CardData decodeRecord(int recordIdx) {
+        int pos = HEADER_SIZE + recordIdx * RECORD_SIZE;
+
+        int typeMask = buffer.getShort(pos + REC_TYPES) & 0xffff;
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < TYPE_BITS.size(); i++) {
+            if ((typeMask & (1 << i)) != 0) {
+                types.add(TYPE_BITS.get(i));
+            }
+        }
+
+        int colorMask = buffer.get(pos + REC_COLORS) & 0xff;
+        List<String> colors = new ArrayList<>();
+        for (int i = 0; i < COLOR_BITS.size(); i++) {
+            if ((colorMask & (1 << i)) != 0) {
+                colors.add(COLOR_BITS.get(i));
+            }
+        }
+
+        Map<String, Integer> pips = new HashMap<>();
+        for (int i = 0; i < PIP_ORDER.size(); i++) {
+            pips.put(PIP_ORDER.get(i), buffer.get(pos + REC_PIPS + i) & 0xff);
+        }
+
+        String primaryType = CardClassifier.fetchPrimaryType(types);
+        String colorCategory = CardClassifier.assignColorCategoryAsString(new ArrayList<>(colors));
+
+        return new CardData(
+            readString(buffer.getInt(pos + REC_NAME)),
+            types,
+            primaryType,
+            colors,
+            colorCategory,
+            buffer.getDouble(pos + REC_PRICE),
+            readString(buffer.getInt(pos + REC_IMAGE_URL)),
+            readString(buffer.getInt(pos + REC_SCRYFALL_URL)),
+            buffer.getFloat(pos + REC_CMC),
+            pips,
+            null
+        ).withPriceAsOf(pricesAsOf);
+    }
+
+    private String readString(int ref) {
+        if (ref == NO_STRING) return null;
+
+        int pos = stringTableOffset + ref;
+        int len = buffer.getShort(pos) & 0xffff;
+        byte[] bytes = new byte[len];
+        buffer.get(pos + 2, bytes, 0, len);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a string-table entry to key bytes without decoding the entry
+     */
+    private boolean stringEquals(int ref, byte[] key) {
+        int pos = stringTableOffset + ref;
+        int len = buffer.getShort(pos) & 0xffff;
+        if (len != key.length) return false;
+
+        for (int i = 0; i < len; i++) {
+            if (buffer.get(pos + 2 + i) != key[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * BloomFilter.java; Compact approximate set of strings.
+ *
+ * mightContain() never answers false for a string that was added, and answers true for a string that
+ * was not added with roughly the false-positive rate the filter was sized for. Around 10 bits per
+ * expected string gives a 1% false-positive rate, so every card name Scryfall knows (including face
+ * names and normalized spellings) fits in well under a megabyte.
+ *
+ * Adding is thread-safe, so names learned from live lookups can be added while requests query the filter.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions - number of strings the filter is sized for
+     * @param falsePositiveRate - target rate of false positives at that size, e.g. 0.01
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+
+        // Optimal sizing: m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * @param value - string to add
+     */
+    public void add(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * @param value - string to test
+     * @return false if value was definitely never added; true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return size of the filter in bytes
+     */
+    public long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * 64-bit FNV-1a over the string's chars, finished with the MurmurHash3 fmix64 step
+     * so both 32-bit halves are well mixed for double hashing
+     */
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85a53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
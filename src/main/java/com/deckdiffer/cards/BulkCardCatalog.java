@@ -0,0 +1,194 @@
+/**
+ * BulkCardCatalog.java; CardCatalog built from a Scryfall bulk-data file.
+ *
+ * Accepts the "oracle-cards" or "default-cards" downloads from https://scryfall.com/docs/api/bulk-data
+ * (optionally gzipped). The file is one large JSON array of card objects, so it is read in a single
+ * streaming pass through ScryfallCardDecoder: only the fields CardData needs are decoded from each card,
+ * and everything else is skipped. The full file is never held in memory.
+ *
+ * Besides lowercase full and face names, each card is indexed under its CardNames.normalize spelling,
+ * so accent-free input like "Lim-Dul's Vault" still resolves.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import com.deckdiffer.cards.ScryfallCardDecoder.DecodedCard;
+
+public final class BulkCardCatalog implements CardCatalog {
+
+    // canonical card name -> CardData, one entry per distinct card
+    private final Map<String, CardData> cards;
+
+    // lowercase card name (full and front-face) -> CardData
+    private final Map<String, CardData> index;
+
+    // Epoch millis the bulk file was written; every card's priceAsOf
+    private final long pricesAsOf;
+
+    private BulkCardCatalog(Map<String, CardData> cards, Map<String, CardData> index, long pricesAsOf) {
+        this.cards = cards;
+        this.index = index;
+        this.pricesAsOf = pricesAsOf;
+    }
+
+    /**
+     * Streams a Scryfall bulk file and builds the name index.
+     *
+     * @param bulkFile - path to an oracle-cards / default-cards JSON file (".gz" is decompressed)
+     * @return populated catalog
+     * @throws IOException if the file cannot be read or is not a JSON array of cards
+     */
+    public static BulkCardCatalog load(Path bulkFile) throws IOException {
+        Map<String, CardData> cards = new LinkedHashMap<>();
+        Map<String, CardData> index = new HashMap<>();
+        long pricesAsOf = Files.getLastModifiedTime(bulkFile).toMillis();
+
+        try (Reader reader = openReader(bulkFile)) {
+            ScryfallCardDecoder.decodeBulk(reader, card -> indexCard(card, pricesAsOf, cards, index));
+        }
+        catch (IOException e) {
+            throw new IOException("Failed to parse bulk file " + bulkFile + ": " + e.getMessage(), e);
+        }
+        repointReplacedKeys(cards, index);
+
+        return new BulkCardCatalog(cards, index, pricesAsOf);
+    }
+
+    @Override
+    public CardData lookup(String cardName) {
+        if (cardName == null) return null;
+        return index.get(cardName.toLowerCase());
+    }
+
+    @Override
+    public int size() {
+        return cards.size();
+    }
+
+    @Override
+    public void forEachName(Consumer<String> action) {
+        index.keySet().forEach(action);
+    }
+
+    @Override
+    public long pricesAsOf() {
+        return pricesAsOf;
+    }
+
+    /**
+     * @return canonical card name -> CardData, one entry per distinct card (read-only)
+     */
+    Map<String, CardData> cardsByName() {
+        return Collections.unmodifiableMap(cards);
+    }
+
+    /**
+     * @return every lowercase lookup key (full and face names) -> CardData (read-only)
+     */
+    Map<String, CardData> nameIndex() {
+        return Collections.unmodifiableMap(index);
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * Adds one bulk-file card to the index under its full name and each face name.
+     *
+     * default-cards contains one entry per printing, so the first printing seen wins,
+     * except that a printing with a USD price replaces an earlier one without.
+     *
+     * @param card - a single decoded card from the bulk file
+     * @param pricesAsOf - epoch millis the bulk file's prices date from
+     * @param cards - canonical name map being built
+     * @param index - name index being built
+     */
+    private static void indexCard(DecodedCard card, long pricesAsOf, Map<String, CardData> cards, Map<String, CardData> index) {
+        String name = card.name;
+
+        // Only English printings carry the names users type
+        if (!card.lang.equals("en")) return;
+
+        CardData existing = cards.get(name);
+        if (existing != null && (existing.price > 0.0 || card.data.price <= 0.0)) {
+            return;
+        }
+
+        CardData data = card.data.withPriceAsOf(pricesAsOf);
+        cards.put(name, data);
+        index.put(name.toLowerCase(), data);
+        addKey(index, CardNames.normalize(name), data, existing);
+
+        // Double-faced / split cards are also found by each face name ("Fire // Ice" -> "Fire", "Ice")
+        for (String faceName : card.faceNames) {
+            addKey(index, faceName.toLowerCase(), data, existing);
+            addKey(index, CardNames.normalize(faceName), data, existing);
+        }
+    }
+
+    /**
+     * Points a secondary lookup key (face name, normalized spelling) at data, unless the key
+     * already belongs to a different card
+     *
+     * @param index - name index being built
+     * @param key - lookup key
+     * @param data - card the key should resolve to
+     * @param replaced - earlier printing of the same card that data replaces, or null
+     */
+    private static void addKey(Map<String, CardData> index, String key, CardData data, CardData replaced) {
+        CardData current = index.get(key);
+        if (current == null || current == replaced) {
+            index.put(key, data);
+        }
+    }
+
+    /**
+     * Points keys that still name a replaced printing (e.g. a face name only the earlier printing had)
+     * at the printing that replaced it, or drops them if the card is gone
+     *
+     * @param cards - canonical name map, holding only the printings that were kept
+     * @param index - name index to fix up
+     */
+    private static void repointReplacedKeys(Map<String, CardData> cards, Map<String, CardData> index) {
+        Set<CardData> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(cards.values());
+
+        index.entrySet().removeIf(entry -> {
+            if (kept.contains(entry.getValue())) {
+                return false;
+            }
+            CardData replacement = cards.get(entry.getValue().name);
+            if (replacement == null) {
+                return true;
+            }
+            entry.setValue(replacement);
+            return false;
+        });
+    }
+
+    private static Reader openReader(Path bulkFile) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(bulkFile), 1 << 16);
+        if (bulkFile.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * CacheWarmer.java; Pre-loads the card cache at startup with the cards most likely to be requested.
+ *
+ * Runs on a background thread, feeding names to CardDataProvider.populateCacheInBatch a few batches
+ * at a time, so the first comparisons after a restart find their cards cached instead of going to
+ * Scryfall cold. After each chunk it measures coverage: the fraction of the names that can now be
+ * answered without a network call. The server reports itself ready once coverage reaches
+ * readyCoverage, or once the warm-up has finished (e.g. Scryfall was down) so a deploy is never stuck.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+public final class CacheWarmer {
+
+    // Four full /cards/collection batches per populateCacheInBatch call
+    private static final int CHUNK_SIZE = ScryfallBatchFetcher.MAX_BATCH_SIZE * 4;
+
+    private final List<String> names;
+    private final double readyCoverage;
+
+    private volatile double coverage;
+    private volatile boolean finished;
+    private volatile long startedAt;
+
+    /**
+     * @param names - cards to pre-load, most important first
+     * @param readyCoverage - fraction of names (0.0 - 1.0) that must be warm before the server is ready
+     */
+    public CacheWarmer(List<String> names, double readyCoverage) {
+        this.names = List.copyOf(names);
+        this.readyCoverage = readyCoverage;
+    }
+
+    /**
+     * Starts warming on a background daemon thread
+     */
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        Thread thread = new Thread(this::run, "card-cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return true once enough of the names are warm, or the warm-up has finished
+     */
+    public boolean isReady() {
+        return finished || coverage >= readyCoverage;
+    }
+
+    /**
+     * @return one-line summary of the warm-up's progress
+     */
+    public String status() {
+        return String.format(
+            "%s coverage=%.3f/%.3f names=%d elapsedMs=%d",
+            finished ? "finished" : "running", coverage, readyCoverage, names.size(),
+            System.currentTimeMillis() - startedAt
+        );
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private void run() {
+        try {
+            coverage = measureCoverage();
+            for (int i = 0; i < names.size() && coverage < 1.0; i += CHUNK_SIZE) {
+                List<String> chunk = names.subList(i, Math.min(i + CHUNK_SIZE, names.size()));
+                CardDataProvider.populateCacheInBatch(new LinkedHashSet<>(chunk));
+
+                boolean wasReady = isReady();
+                coverage = measureCoverage();
+                if (!wasReady && isReady()) {
+                    System.out.println("Card cache warm: " + status());
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            System.err.println("Card cache warm-up failed: " + e.getMessage());
+        }
+        finally {
+            finished = true;
+            System.out.println("Card cache warm-up done: " + status());
+        }
+    }
+
+    /**
+     * @return fraction of the names that can be answered without a network call
+     */
+    private double measureCoverage() {
+        if (names.isEmpty()) {
+            return 1.0;
+        }
+
+        int warm = 0;
+        for (String name : names) {
+            if (CardDataProvider.isWarm(name)) {
+                warm++;
+            }
+        }
+        return (double) warm / names.size();
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * CardCache.java; Bounded, evicting cache of CardData keyed by lowercase card name.
+ *
+ * - Holds at most maxEntries cards, evicting the least recently used one when full
+ * - Oracle attributes (types, cmc, pips, ...) expire after staticTtlMillis (0 = never)
+ * - Prices go stale after priceTtlMillis; a stale entry is reported as a miss by get() so the
+ *   caller re-fetches it, but stays available through getStale() until it is replaced
+ * - Cached CardData is stamped with its fetch time (CardData.priceAsOf) so the price's age can be shown
+ * - Counts hits, misses, evictions and expirations so the cache can be sized
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class CardCache {
+
+    // Cached card plus the time it was fetched; updated in place by replace(), under the cache's lock
+    private static final class Entry {
+        CardData data;
+        long fetchedAt; // epoch millis
+
+        Entry(CardData data, long fetchedAt) {
+            update(data, fetchedAt);
+        }
+
+        void update(CardData data, long fetchedAt) {
+            this.data = data.withPriceAsOf(fetchedAt);
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long staticTtlMillis;
+    private final long priceTtlMillis;
+
+    // Access-ordered, so iteration order runs from least to most recently used
+    private final LinkedHashMap<String, Entry> entries;
+
+    // The same entries, for reads that must not count as a use (a get on entries moves the entry
+    // to most recently used): pre-fetch checks and background refreshes
+    private final Map<String, Entry> peekIndex = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param maxEntries - maximum number of cached cards
+     * @param staticTtlMillis - lifetime of oracle attributes in ms, 0 for no expiry
+     * @param priceTtlMillis - freshness window of prices in ms
+     */
+    public CardCache(int maxEntries, long staticTtlMillis, long priceTtlMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.staticTtlMillis = staticTtlMillis;
+        this.priceTtlMillis = priceTtlMillis;
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CardCache.this.maxEntries) {
+                    peekIndex.remove(eldest.getKey());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key - lowercase card name
+     * @return cached CardData with a fresh price, or null on a miss (absent, expired or price stale)
+     */
+    public synchronized CardData get(String key) {
+        Entry entry = liveEntry(key);
+        long now = System.currentTimeMillis();
+
+        if (entry == null || now - entry.fetchedAt > priceTtlMillis) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.data;
+    }
+
+    /**
+     * Returns cached data even if its price is stale. Does not count towards hit/miss stats.
+     *
+     * @param key - lowercase card name
+     * @return cached CardData, or null if absent or its oracle attributes expired
+     */
+    public synchronized CardData getStale(String key) {
+        Entry entry = liveEntry(key);
+        return entry == null ? null : entry.data;
+    }
+
+    /**
+     * @param key - lowercase card name
+     * @return true if a fresh (non-stale) entry exists; does not affect stats or recency
+     */
+    public synchronized boolean containsFresh(String key) {
+        Entry entry = peekIndex.get(key);
+        if (entry == null) return false;
+
+        long age = System.currentTimeMillis() - entry.fetchedAt;
+        return age <= priceTtlMillis && (staticTtlMillis <= 0 || age <= staticTtlMillis);
+    }
+
+    /**
+     * @param key - lowercase card name
+     * @return epoch millis the cached entry was fetched, or -1 if absent; does not affect stats or recency
+     */
+    public synchronized long fetchedAt(String key) {
+        Entry entry = peekIndex.get(key);
+        return entry == null ? -1L : entry.fetchedAt;
+    }
+
+    /**
+     * Stores freshly fetched data
+     *
+     * @param key - lowercase card name
+     * @param data - CardData to cache
+     */
+    public void put(String key, CardData data) {
+        put(key, data, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores data fetched at a known time
+     *
+     * @param key - lowercase card name
+     * @param data - CardData to cache
+     * @param fetchedAt - epoch millis the data was fetched from Scryfall
+     */
+    public synchronized void put(String key, CardData data, long fetchedAt) {
+        Entry entry = new Entry(data, fetchedAt);
+        peekIndex.put(key, entry);
+        entries.put(key, entry);
+    }
+
+    /**
+     * Swaps in re-fetched data for a card that is still cached. Entries evicted in the meantime are
+     * not brought back, and entries fetched after this data (e.g. by an interactive lookup) are kept.
+     * A background refresh is not a use, so the entry keeps its place in the eviction order.
+     *
+     * @param key - lowercase card name
+     * @param data - re-fetched CardData
+     * @param fetchedAt - epoch millis the data was requested from Scryfall
+     * @return true if the entry was replaced
+     */
+    public synchronized boolean replace(String key, CardData data, long fetchedAt) {
+        Entry entry = peekIndex.get(key);
+        if (entry == null || entry.fetchedAt >= fetchedAt) {
+            return false;
+        }
+        entry.update(data, fetchedAt);
+        return true;
+    }
+
+    /**
+     * Copies out every entry, e.g. to save the cache to disk. Does not affect stats or recency.
+     *
+     * @return cached cards ordered from least to most recently used
+     */
+    public synchronized List<CachedCard> entries() {
+        List<CachedCard> cards = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            cards.add(new CachedCard(entry.getKey(), entry.getValue().data, entry.getValue().fetchedAt));
+        }
+        return cards;
+    }
+
+    /**
+     * @return snapshot of the cache counters
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), expirations.get(), entries.size(), maxEntries);
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * @param key - lowercase card name
+     * @return entry for key, removing it first if its oracle attributes have expired
+     */
+    private Entry liveEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (staticTtlMillis > 0 && System.currentTimeMillis() - entry.fetchedAt > staticTtlMillis) {
+            entries.remove(key);
+            peekIndex.remove(key);
+            expirations.incrementAndGet();
+            return null;
+        }
+        return entry;
+    }
+
+    // One cache entry as copied out by entries()
+    public static final class CachedCard {
+        public final String key;
+        public final CardData data;
+        public final long fetchedAt; // epoch millis
+
+        public CachedCard(String key, CardData data, long fetchedAt) {
+            this.key = key;
+            this.data = data;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    // Point-in-time cache counters
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+        public final int size;
+        public final int maxEntries;
+
+        public Stats(long hits, long misses, long evictions, long expirations, int size, int maxEntries) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * @return fraction of lookups that were hits, 0.0 if there were none
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "size=%d/%d hits=%d misses=%d hitRate=%.3f evictions=%d expirations=%d",
+                size, maxEntries, hits, misses, hitRate(), evictions, expirations
+            );
+        }
+    }
+}
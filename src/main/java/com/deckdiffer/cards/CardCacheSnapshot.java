@@ -0,0 +1,261 @@
+/**
+ * CardCacheSnapshot.java; Saves the card cache and its name aliases to a local file and restores them at startup.
+ *
+ * Written periodically and at shutdown. Each write goes to a temp file that is then renamed over the
+ * snapshot, so a crash mid-write leaves the previous snapshot intact. Every entry keeps the time it was
+ * fetched, so restored prices age exactly as if the process had never restarted: fresh ones are served
+ * as is, stale ones are served and revalidated as usual.
+ *
+ * File layout (big-endian, DataOutputStream encoding):
+ * - Header: magic, version, entry count
+ * - Entries, least recently used first: key, fetchedAt, then the CardData fields
+ * - Alias count, then (alias, canonical key) pairs
+ * - CRC32 of everything above
+ *
+ * A snapshot with another version or a bad checksum is ignored and the cache starts empty.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+public final class CardCacheSnapshot {
+
+    // ---------------
+    // File Format
+    // ---------------
+
+    static final int MAGIC = 0x44444353; // "DDCS"
+    static final int VERSION = 1;
+
+    private final Path path;
+    private final CardCache cache;
+    private final Map<String, String> aliases;
+
+    private ScheduledExecutorService executor; // guarded by this
+
+    /**
+     * @param path - snapshot file
+     * @param cache - cache to save and restore
+     * @param aliases - alias -> canonical key map to save and restore alongside it
+     */
+    public CardCacheSnapshot(Path path, CardCache cache, Map<String, String> aliases) {
+        this.path = path;
+        this.cache = cache;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Loads the snapshot into the cache and alias map. A missing, outdated or corrupt file is not an error.
+     *
+     * @return number of cards restored
+     */
+    public int restore() {
+        try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a card cache snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " (expected " + VERSION + ")");
+            }
+
+            // Read everything before touching the cache, so a corrupt file restores nothing
+            int count = in.readInt();
+            List<CardCache.CachedCard> cards = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long fetchedAt = in.readLong();
+                cards.add(new CardCache.CachedCard(key, readCardData(in), fetchedAt));
+            }
+
+            int aliasCount = in.readInt();
+            Map<String, String> restoredAliases = new HashMap<>();
+            for (int i = 0; i < aliasCount; i++) {
+                restoredAliases.put(in.readUTF(), in.readUTF());
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+
+            // Oldest first, so the LRU order is the same as when the snapshot was taken
+            for (CardCache.CachedCard card : cards) {
+                cache.put(card.key, card.data, card.fetchedAt);
+            }
+            aliases.putAll(restoredAliases);
+            return cards.size();
+        }
+        catch (NoSuchFileException e) {
+            return 0;
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring card cache snapshot " + path + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Saves the snapshot on a background daemon thread, and once more at shutdown. Calling it again has no effect.
+     *
+     * @param intervalMillis - time between saves
+     */
+    public synchronized void startSaving(long intervalMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "card-cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::save, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::save, "card-cache-snapshot-shutdown"));
+    }
+
+    /**
+     * Writes the current cache and aliases to the snapshot file, replacing it atomically
+     */
+    public synchronized void save() {
+        List<CardCache.CachedCard> cards = cache.entries();
+        Map<String, String> aliasCopy = new HashMap<>(aliases);
+
+        try {
+            Path absolute = path.toAbsolutePath();
+            Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), new CRC32());
+                try (DataOutputStream out = new DataOutputStream(checked)) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+
+                    out.writeInt(cards.size());
+                    for (CardCache.CachedCard card : cards) {
+                        out.writeUTF(card.key);
+                        out.writeLong(card.fetchedAt);
+                        writeCardData(out, card.data);
+                    }
+
+                    out.writeInt(aliasCopy.size());
+                    for (Map.Entry<String, String> alias : aliasCopy.entrySet()) {
+                        out.writeUTF(alias.getKey());
+                        out.writeUTF(alias.getValue());
+                    }
+
+                    out.flush();
+                    out.writeLong(checked.getChecksum().getValue());
+                }
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Failed to write card cache snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private static void writeCardData(DataOutputStream out, CardData data) throws IOException {
+        writeNullableString(out, data.name);
+        writeStrings(out, data.types);
+        out.writeUTF(data.primaryType);
+        writeStrings(out, data.colors);
+        out.writeUTF(data.colorCategory);
+        out.writeDouble(data.price);
+        writeNullableString(out, data.imageUrl);
+        writeNullableString(out, data.scryfallUrl);
+        out.writeDouble(data.cmc);
+
+        out.writeShort(data.pipCounts.size());
+        for (Map.Entry<String, Integer> pip : data.pipCounts.entrySet()) {
+            out.writeUTF(pip.getKey());
+            out.writeInt(pip.getValue());
+        }
+
+        byte[] json = data.compressedJson();
+        out.writeInt(json == null ? -1 : json.length);
+        if (json != null) {
+            out.write(json);
+        }
+    }
+
+    private static CardData readCardData(DataInputStream in) throws IOException {
+        String name = readNullableString(in);
+        List<String> types = readStrings(in);
+        String primaryType = in.readUTF();
+        List<String> colors = readStrings(in);
+        String colorCategory = in.readUTF();
+        double price = in.readDouble();
+        String imageUrl = readNullableString(in);
+        String scryfallUrl = readNullableString(in);
+        double cmc = in.readDouble();
+
+        int pipCount = in.readUnsignedShort();
+        Map<String, Integer> pipCounts = new HashMap<>();
+        for (int i = 0; i < pipCount; i++) {
+            pipCounts.put(in.readUTF(), in.readInt());
+        }
+
+        int jsonLength = in.readInt();
+        byte[] json = null;
+        if (jsonLength >= 0) {
+            json = new byte[jsonLength];
+            in.readFully(json);
+        }
+
+        return new CardData(name, types, primaryType, colors, colorCategory, price, imageUrl, scryfallUrl, cmc, pipCounts, json);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * CardCatalog.java; Read-only index of card data built from a local source
+ * (e.g. a Scryfall bulk-data file) rather than live API lookups.
+ *
+ * CardDataProvider consults the installed catalog before going to the network,
+ * so only cards newer than the catalog ever cost a Scryfall round trip.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+public interface CardCatalog {
+
+    /**
+     * Opens a catalog file, memory-mapping it if it is a compiled binary catalog
+     * and stream-parsing it if it is a Scryfall bulk JSON file.
+     *
+     * @param path - path to a ".bin" catalog or a Scryfall bulk file
+     * @return the opened catalog
+     * @throws IOException if the file cannot be read
+     */
+    static CardCatalog open(Path path) throws IOException {
+        boolean binary = false;
+        if (Files.size(path) >= 4) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                binary = in.readInt() == BinaryCardCatalog.MAGIC;
+            }
+        }
+        return binary ? BinaryCardCatalog.open(path) : BulkCardCatalog.load(path);
+    }
+
+    /**
+     * Looks up a card by name, case-insensitively.
+     * Both full names ("Fire // Ice") and front-face names ("Fire") resolve.
+     *
+     * @param cardName - the name of the card as a string
+     * @return CardData for the card, or null if the catalog does not know it
+     */
+    CardData lookup(String cardName);
+
+    /**
+     * @return number of distinct cards in the catalog
+     */
+    int size();
+
+    /**
+     * CardDataProvider treats the catalog's prices like cached ones: once they are older than the
+     * price TTL they are served marked as stale and the card is re-fetched for later requests.
+     *
+     * @return epoch millis the catalog's prices date from (the bulk file's modification time)
+     */
+    long pricesAsOf();
+
+    /**
+     * Visits every lookup key the catalog answers to: lowercase full and face names,
+     * and their normalized spellings where the catalog indexes those too.
+     *
+     * @param action - called once per key
+     */
+    void forEachName(Consumer<String> action);
+}
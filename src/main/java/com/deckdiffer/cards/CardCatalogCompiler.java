@@ -0,0 +1,191 @@
+/**
+ * CardCatalogCompiler.java; Build step that compiles a Scryfall bulk-data file into the
+ * binary catalog format read by BinaryCardCatalog.
+ *
+ * Usage:
+ * mvn compile exec:java@compile-catalog -Dexec.args="oracle-cards.json cards.bin"
+ * (the compile-catalog execution in pom.xml runs this class instead of the server)
+ *
+ * The output is written to a temporary file and renamed into place, so servers that already
+ * mapped the previous catalog keep reading it until they reopen.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.deckdiffer.cards.BinaryCardCatalog.*;
+
+public final class CardCatalogCompiler {
+
+    private CardCatalogCompiler() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CardCatalogCompiler <scryfall-bulk.json[.gz]> <output.bin>");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        BulkCardCatalog bulk = BulkCardCatalog.load(Path.of(args[0]));
+        compile(bulk, Path.of(args[1]));
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Compiled " + bulk.size() + " cards into " + args[1] + " in " + elapsedMs + " ms");
+    }
+
+    /**
+     * Writes a bulk catalog out in the binary catalog format.
+     *
+     * @param bulk - catalog loaded from a Scryfall bulk file
+     * @param output - destination path for the compiled catalog
+     * @throws IOException if the file cannot be written
+     */
+    public static void compile(BulkCardCatalog bulk, Path output) throws IOException {
+        Map<String, CardData> cards = bulk.cardsByName();
+        Map<String, CardData> nameIndex = bulk.nameIndex();
+
+        StringTable strings = new StringTable();
+
+        // Records, remembering which record number each CardData landed in
+        ByteBuffer records = ByteBuffer.allocate(cards.size() * RECORD_SIZE);
+        Map<CardData, Integer> recordNumbers = new IdentityHashMap<>();
+
+        for (Map.Entry<String, CardData> entry : cards.entrySet()) {
+            CardData data = entry.getValue();
+            int pos = recordNumbers.size() * RECORD_SIZE;
+            recordNumbers.put(data, recordNumbers.size());
+
+            records.putInt(pos + REC_NAME, strings.add(entry.getKey()));
+            records.putInt(pos + REC_IMAGE_URL, strings.add(data.imageUrl));
+            records.putInt(pos + REC_SCRYFALL_URL, strings.add(data.scryfallUrl));
+            records.putDouble(pos + REC_PRICE, data.price);
+            records.putFloat(pos + REC_CMC, (float) data.cmc);
+            records.putShort(pos + REC_TYPES, (short) bitMask(TYPE_BITS, data.types));
+            records.put(pos + REC_COLORS, (byte) bitMask(COLOR_BITS, data.colors));
+
+            for (int i = 0; i < PIP_ORDER.size(); i++) {
+                int pips = data.pipCounts.getOrDefault(PIP_ORDER.get(i), 0);
+                records.put(pos + REC_PIPS + i, (byte) Math.min(pips, 255));
+            }
+        }
+
+        // Name index, sized to a power of two at load factor <= 0.5
+        int slotCount = Integer.highestOneBit(Math.max(nameIndex.size(), 1)) << 2;
+        ByteBuffer index = ByteBuffer.allocate(slotCount * INDEX_SLOT_SIZE);
+        for (int slot = 0; slot < slotCount; slot++) {
+            index.putInt(slot * INDEX_SLOT_SIZE, NO_STRING);
+        }
+
+        int mask = slotCount - 1;
+        for (Map.Entry<String, CardData> entry : nameIndex.entrySet()) {
+            Integer recordNumber = recordNumbers.get(entry.getValue());
+            if (recordNumber == null) {
+                // A key of a printing that was replaced by another one; it has no record to point at
+                System.err.println("Skipping catalog key without a card record: " + entry.getKey());
+                continue;
+            }
+
+            int slot = hash(entry.getKey().getBytes(StandardCharsets.UTF_8)) & mask;
+            while (index.getInt(slot * INDEX_SLOT_SIZE) != NO_STRING) {
+                slot = (slot + 1) & mask;
+            }
+            index.putInt(slot * INDEX_SLOT_SIZE, strings.add(entry.getKey()));
+            index.putInt(slot * INDEX_SLOT_SIZE + 4, recordNumber);
+        }
+
+        byte[] stringBytes = strings.toByteArray();
+        long stringTableOffset = HEADER_SIZE + (long) records.capacity();
+        long indexOffset = stringTableOffset + stringBytes.length;
+        if (indexOffset + index.capacity() > Integer.MAX_VALUE) {
+            throw new IOException("Card catalog exceeds 2 GB");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+              .putInt(VERSION)
+              .putInt(cards.size())
+              .putInt(slotCount)
+              .putLong(stringTableOffset)
+              .putLong(indexOffset)
+              .putLong(bulk.pricesAsOf());
+
+        Path absolute = output.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(header.array());
+                out.write(records.array());
+                out.write(stringBytes);
+                out.write(index.array());
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * @param bits - the value assigned to each bit position
+     * @param values - values present on the card
+     * @return mask with bit i set when bits.get(i) is in values
+     */
+    private static int bitMask(List<String> bits, List<String> values) {
+        int mask = 0;
+        for (String value : values) {
+            int bit = bits.indexOf(value);
+            if (bit >= 0) {
+                mask |= 1 << bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Deduplicating string table: each distinct string is written once as [unsigned short length][UTF-8 bytes]
+     */
+    private static final class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String value) {
+            if (value == null) return NO_STRING;
+
+            Integer existing = offsets.get(value);
+            if (existing != null) return existing;
+
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > 0xffff) {
+                throw new IllegalArgumentException("String too long for card catalog: " + value.substring(0, 64));
+            }
+
+            int offset = bytes.size();
+            bytes.write(utf8.length >>> 8);
+            bytes.write(utf8.length & 0xff);
+            bytes.write(utf8, 0, utf8.length);
+
+            offsets.put(value, offset);
+            return offset;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
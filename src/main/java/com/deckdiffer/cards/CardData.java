@@ -1,17 +1,25 @@
 /**
  * CardData.java:
- * 
+ *
  * Provides a model for a given card
  * Populated after JSON is downloaded from Scryfall and relevant fields are extracted
+ *
+ * Only the extracted fields are kept. The raw Scryfall JSON is dropped unless retention is
+ * requested, in which case it is held deflate-compressed and re-parsed on demand by rawJson().
  */
 
 package com.deckdiffer.cards;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import org.json.JSONObject;
 
 public final class CardData {
-    public final JSONObject json; // Raw Scryfall JSON response
+    public final String name; // Canonical Scryfall card name, null if the card was not found
     public final List<String> types; // All card types and subtypes (ex: Creature, Artifact, Enchantment)
     public final String primaryType; // Main type used for grouping
     public final List<String> colors; // WUBRG color identity of the card, ex: {"W", "U", "B"}
@@ -21,9 +29,15 @@ public final class CardData {
     public final String scryfallUrl; // Link to the card on Scryfall
     public final double cmc; // Converted mana cost of card
     public final Map<String, Integer> pipCounts; // Count of mana symbols by color (ex: W:2, U;1)
+    public final boolean priceStale; // True if price is past its freshness window; a re-fetch may be under way
+    public final long priceAsOf; // Epoch millis the price was fetched from Scryfall, 0 if unknown
 
-    public CardData(JSONObject json, List<String> types, String primaryType, List<String> colors, String colorCategory, double price, String imageUrl, String scryfallUrl, double cmc, Map<String, Integer> pipCounts){
-        this.json = json;
+    private final byte[] compressedJson; // Deflated raw Scryfall JSON, null unless retained
+
+    private static final CardData PENDING = new CardData(null, List.of(), "Pending", List.of(), "Unknown", 0.0, null, null, 0.0, Map.of(), null);
+
+    public CardData(String name, List<String> types, String primaryType, List<String> colors, String colorCategory, double price, String imageUrl, String scryfallUrl, double cmc, Map<String, Integer> pipCounts, byte[] compressedJson){
+        this.name = name;
         this.types = List.copyOf(types);
         this.primaryType = primaryType;
         this.colors = List.copyOf(colors);
@@ -33,5 +47,149 @@ public final class CardData {
         this.scryfallUrl = scryfallUrl;
         this.cmc = cmc;
         this.pipCounts = Map.copyOf(pipCounts);
+        this.priceStale = false;
+        this.priceAsOf = 0L;
+        this.compressedJson = compressedJson;
+    }
+
+    // Copy of source with new price freshness information
+    private CardData(CardData source, boolean priceStale, long priceAsOf){
+        this.name = source.name;
+        this.types = source.types;
+        this.primaryType = source.primaryType;
+        this.colors = source.colors;
+        this.colorCategory = source.colorCategory;
+        this.price = source.price;
+        this.imageUrl = source.imageUrl;
+        this.scryfallUrl = source.scryfallUrl;
+        this.cmc = source.cmc;
+        this.pipCounts = source.pipCounts;
+        this.priceStale = priceStale;
+        this.priceAsOf = priceAsOf;
+        this.compressedJson = source.compressedJson;
+    }
+
+    /**
+     * Empty stand-in for a card that could not be found; grouped as a colorless "Other" card worth $0
+     *
+     * @return placeholder CardData
+     */
+    public static CardData placeholder(){
+        return new CardData(null, List.of(), "Other", List.of(), "Colorless", 0.0, null, null, 0.0, Map.of(), null);
+    }
+
+    /**
+     * Marks a cached card whose price is past its freshness window as out of date
+     *
+     * @return copy of this card with priceStale set
+     */
+    public CardData withStalePrice(){
+        return priceStale ? this : new CardData(this, true, priceAsOf);
+    }
+
+    /**
+     * @param fetchedAt - epoch millis the price was fetched from Scryfall
+     * @return copy of this card stamped with the time its price was fetched
+     */
+    public CardData withPriceAsOf(long fetchedAt){
+        return priceAsOf == fetchedAt ? this : new CardData(this, priceStale, fetchedAt);
+    }
+
+    /**
+     * @return milliseconds since the price was fetched, or -1 if that is unknown
+     */
+    public long priceAgeMillis(){
+        return priceAsOf <= 0L ? -1L : Math.max(0L, System.currentTimeMillis() - priceAsOf);
+    }
+
+    /**
+     * Stand-in for a card whose lookup had not finished when the request's deadline passed.
+     * Rendered as a placeholder tile with a "price pending" marker that the page fills in later.
+     *
+     * @return the shared pending placeholder
+     */
+    public static CardData pending(){
+        return PENDING;
+    }
+
+    /**
+     * @return true if this is the pending placeholder, i.e. the card's data is still being fetched
+     */
+    public boolean isPending(){
+        return this == PENDING;
+    }
+
+    /**
+     * @return false if this is a placeholder for a card that could not be found
+     */
+    public boolean isFound(){
+        return name != null;
+    }
+
+    /**
+     * @return the deflated raw Scryfall JSON as stored, or null if it was not retained
+     */
+    byte[] compressedJson(){
+        return compressedJson;
+    }
+
+    /**
+     * Re-parses the retained raw Scryfall JSON. Each call inflates and parses a fresh copy,
+     * so callers that need several fields should hold on to the result.
+     *
+     * @return raw Scryfall JSON for the card, or null if it was not retained
+     */
+    public JSONObject rawJson(){
+        if (compressedJson == null){
+            return null;
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedJson);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressedJson.length * 4);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()){
+                int n = inflater.inflate(buf);
+                if (n == 0 && inflater.needsInput()){
+                    break;
+                }
+                out.write(buf, 0, n);
+            }
+            return new JSONObject(out.toString(StandardCharsets.UTF_8));
+        }
+        catch (DataFormatException e){
+            System.err.println("Corrupt retained JSON for " + name + ": " + e.getMessage());
+            return null;
+        }
+        finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Deflate-compresses raw JSON text for storage in a CardData
+     *
+     * @param json - raw JSON text
+     * @return compressed bytes
+     */
+    static byte[] compressJson(String json){
+        byte[] input = json.getBytes(StandardCharsets.UTF_8);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 4 + 16);
+            byte[] buf = new byte[4096];
+            while (!deflater.finished()){
+                int n = deflater.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
     }
 }
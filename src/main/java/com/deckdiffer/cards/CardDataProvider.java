@@ -4,113 +4,526 @@
  * Card Name -> Scryfall -> JSON -> CardData
  * 
  * Responsibilities:
+ * - Serve card data from the local CardCatalog when one is installed
+ * - Send names a Bloom filter of known card names rejects straight to fuzzy correction,
+ *   skipping the exact lookups (catalog probe, /cards/collection) they cannot match
+ * - Correct misspelled names locally with a FuzzyNameMatcher over the catalog; names neither the
+ *   catalog nor the matcher knows are answered as not found without a network call, unless the
+ *   catalog is too old to be complete; offer "did you mean" suggestions
  * - Perform fuzzy-name Scryfall API lookups
- * - Cache JSON to minimize repeated API calls
- * - Build structured CardData objects
- * - Contains methods to extract relevant card fields
+ * - Serve stale cached prices immediately, marked as such, and re-fetch them in the background
+ * - Bound every lookup by the caller's Deadline, answering late cards with CardData.pending()
+ * - Cache CardData to minimize repeated API calls, keyed by canonical name
+ * - Count lookups so PriceRefresher can keep the prices of popular cards fresh in the background
+ * - Persist lookup counts in an AccessLog and warm the cache from it at startup (CacheWarmer)
+ * - Save the cache and aliases to a CardCacheSnapshot and restore them at startup
+ * - Map every spelling a card was requested under (case, accents, face names) to its canonical name
+ * - Build structured CardData objects via ScryfallCardDecoder, which decodes only the needed fields
  */
 
 package com.deckdiffer.cards;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.deckdiffer.cards.ScryfallCardDecoder.DecodedCard;
 
 public class CardDataProvider {
-    private static final Map<String, JSONObject> cardJsonCache = new ConcurrentHashMap<>();
-    private static final Map<String, CardData> cardDataCache = new ConcurrentHashMap<>();
+    private static final String SCRYFALL_NAMED_URL = "https://api.scryfall.com/cards/named?fuzzy=";
 
-    // Card Type Definitions
-    private static final Set<String> CARD_TYPES = Set.of(
-        "Artifact", "Creature", "Enchantment", "Instant",
-        "Sorcery", "Land", "Planeswalker", "Battle", "Tribal"
+    private static final long PRICE_TTL_MS = TimeUnit.HOURS.toMillis(Long.getLong("deckdiffer.cache.priceTtlHours", 24L));
+
+    // Bounded LRU cache; oracle attributes and prices expire on separate schedules
+    private static final CardCache cardDataCache = new CardCache(
+        Integer.getInteger("deckdiffer.cache.maxEntries", 20_000),
+        TimeUnit.HOURS.toMillis(Long.getLong("deckdiffer.cache.staticTtlHours", 0L)),
+        PRICE_TTL_MS
+    );
+
+    // Re-fetches the most requested cards before their price goes stale (by default at half the price TTL)
+    private static final PriceRefresher priceRefresher = new PriceRefresher(
+        cardDataCache,
+        Integer.getInteger("deckdiffer.refresh.hotCards", 1_500),
+        TimeUnit.MINUTES.toMillis(Long.getLong("deckdiffer.refresh.ageMinutes", TimeUnit.MILLISECONDS.toMinutes(PRICE_TTL_MS) / 2)),
+        Integer.getInteger("deckdiffer.refresh.maxTracked", 50_000),
+        Double.parseDouble(System.getProperty("deckdiffer.refresh.requestsPerMinute", "6"))
+    );
+
+    // Names that recently failed to resolve, so they are not re-fetched on every comparison
+    private static final NegativeCache negativeCache = new NegativeCache(
+        Integer.getInteger("deckdiffer.negativeCache.maxEntries", 10_000),
+        TimeUnit.MINUTES.toMillis(Long.getLong("deckdiffer.negativeCache.notFoundTtlMinutes", 360L)),
+        TimeUnit.SECONDS.toMillis(Long.getLong("deckdiffer.negativeCache.transientTtlSeconds", 60L))
     );
 
+    // Every known spelling of a card (lowercase typed name, face name, normalized form)
+    // -> lowercase canonical name, which is the key cardDataCache stores the card under
+    private static final Map<String, String> aliases = new ConcurrentHashMap<>();
+    private static final int MAX_ALIASES = Integer.getInteger("deckdiffer.cache.maxAliases", 200_000);
+
+    private static final double KNOWN_NAMES_FALSE_POSITIVE_RATE = 0.01;
+
+    // Lookups currently being fetched, lowercase card name -> pending result.
+    // Concurrent requests for the same card wait on one fetch instead of issuing duplicates.
+    private static final Map<String, CompletableFuture<CardData>> inFlight = new ConcurrentHashMap<>();
+    private static final int MAX_IN_FLIGHT_WAITS = 3;
+
+    // Canonical keys whose stale price is being re-fetched in the background
+    private static final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    // Lookup counts that survive restarts; the most requested cards are pre-loaded at startup
+    private static final AccessLog accessLog = new AccessLog(
+        Path.of(System.getProperty("deckdiffer.accessLog.path", "card-access.log")),
+        Integer.getInteger("deckdiffer.accessLog.maxEntries", 5_000)
+    );
+
+    // Startup warm-up; null until startWarmup is called
+    private static volatile CacheWarmer warmer;
+
+    // Local card index (e.g. from a Scryfall bulk file); null until installCatalog is called
+    private static volatile CardCatalog catalog;
+
+    // Every lookup key of the catalog plus every spelling learned since; null without a catalog,
+    // since only a complete set of names can prove that a name does not exist
+    private static volatile BloomFilter knownNames;
+
+    // Trigram / edit-distance index over the catalog's names; null without a catalog
+    private static volatile FuzzyNameMatcher fuzzyMatcher;
+
+    // Completes once knownNames and fuzzyMatcher of the installed catalog are built. Until then every
+    // name counts as known and nothing is corrected locally, as without a catalog.
+    private static volatile CompletableFuture<Void> catalogIndexes = CompletableFuture.completedFuture(null);
+
+    // A misspelling is corrected automatically only if the best match scores this high
+    // and beats the runner-up (a different card) by AUTO_CORRECT_MARGIN
+    private static final double AUTO_CORRECT_SCORE = Double.parseDouble(System.getProperty("deckdiffer.fuzzy.autoCorrectScore", "0.8"));
+    private static final double AUTO_CORRECT_MARGIN = 0.05;
+
+    // Lowest score still offered as a "did you mean" suggestion
+    private static final double SUGGESTION_SCORE = Double.parseDouble(System.getProperty("deckdiffer.fuzzy.suggestionScore", "0.6"));
+
+    // One matcher query per unknown name serves both the auto-correction and the "did you mean" hints:
+    // down to the lower of the two thresholds, with room for several spellings of each of 3 suggested cards
+    private static final double LOCAL_MATCH_SCORE = Math.min(SUGGESTION_SCORE, AUTO_CORRECT_SCORE - AUTO_CORRECT_MARGIN);
+    private static final int LOCAL_MATCH_LIMIT = 9;
+
+    // Whether cards missing from the catalog may be looked up on Scryfall
+    private static volatile boolean networkFallback =
+        Boolean.parseBoolean(System.getProperty("deckdiffer.network.fallback", "true"));
+
+    // A catalog younger than this is taken to list every card, so names it does not know are not looked up
+    private static final long CATALOG_COMPLETE_MS =
+        TimeUnit.DAYS.toMillis(Long.getLong("deckdiffer.catalog.completeForDays", 7L));
+
     private CardDataProvider() {
     }
 
+    /**
+     * Installs the local catalog that fetchCardData and populateCacheInBatch consult before the network.
+     * Cards are served from it at once; its known-name filter and fuzzy matcher are built on a background
+     * thread, and isReady() waits for them.
+     *
+     * @param cardCatalog - catalog to serve card data from, or null to remove it
+     */
+    public static synchronized void installCatalog(CardCatalog cardCatalog) {
+        catalog = cardCatalog;
+        knownNames = null;
+        fuzzyMatcher = null;
+        if (cardCatalog == null) {
+            catalogIndexes = CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        CompletableFuture<Void> indexes = new CompletableFuture<>();
+        catalogIndexes = indexes;
+        Thread thread = new Thread(() -> buildCatalogIndexes(cardCatalog, indexes), "catalog-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Blocks until the installed catalog's known-name filter and fuzzy matcher are in use
+     */
+    static void awaitCatalogIndexes() {
+        catalogIndexes.join();
+    }
+
+    /**
+     * Finds the closest catalog names for cards that could not be found, for "did you mean" hints.
+     * Names the comparison already matched against the catalog reuse those matches.
+     *
+     * @param snapshot - card data resolved for the comparison
+     * @param cardNames - names as typed
+     * @param limit - maximum suggestions per name
+     * @return name -> canonical names of the closest cards, best first; names without any
+     *         suggestion are left out (as is everything when no catalog is installed)
+     */
+    public static Map<String, List<String>> suggestNames(CardSnapshot snapshot, Collection<String> cardNames, int limit) {
+        FuzzyNameMatcher matcher = fuzzyMatcher;
+        CardCatalog current = catalog;
+        Map<String, List<String>> suggestions = new LinkedHashMap<>();
+        if (matcher == null || current == null) {
+            return suggestions;
+        }
+
+        for (String cardName : cardNames) {
+            // Ask for extra matches: several spellings (face names, accents) can belong to one card
+            List<FuzzyNameMatcher.Suggestion> matches = snapshot.localMatches.get(cardName);
+            if (matches == null || limit * 3 > LOCAL_MATCH_LIMIT) {
+                matches = matcher.suggest(cardName, limit * 3, SUGGESTION_SCORE);
+            }
+
+            Set<String> canonical = new LinkedHashSet<>();
+            for (FuzzyNameMatcher.Suggestion suggestion : matches) {
+                if (suggestion.score < SUGGESTION_SCORE) break;
+
+                CardData data = current.lookup(suggestion.name);
+                if (data != null && data.isFound() && canonical.size() < limit) {
+                    canonical.add(data.name);
+                }
+            }
+            if (!canonical.isEmpty()) {
+                suggestions.put(cardName, List.copyOf(canonical));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Enables or disables Scryfall lookups for cards the catalog does not contain
+     *
+     * @param enabled - true to fall back to the network for unknown cards
+     */
+    public static void setNetworkFallback(boolean enabled) {
+        networkFallback = enabled;
+    }
+
+    /**
+     * @return hit, miss, eviction and expiration counters of the card cache
+     */
+    public static CardCache.Stats cacheStats() {
+        return cardDataCache.stats();
+    }
+
+    /**
+     * Starts the background price refresher, unless disabled with deckdiffer.refresh.enabled=false
+     */
+    public static void startPriceRefresher() {
+        if (!Boolean.parseBoolean(System.getProperty("deckdiffer.refresh.enabled", "true"))) {
+            return;
+        }
+        priceRefresher.start(TimeUnit.SECONDS.toMillis(Long.getLong("deckdiffer.refresh.intervalSeconds", 300L)));
+    }
+
+    /**
+     * @return counters of the background price refresher
+     */
+    public static String refresherStats() {
+        return priceRefresher.stats();
+    }
+
+    /**
+     * @return size of the installed catalog and the age of its prices
+     */
+    public static String catalogStats() {
+        CardCatalog current = catalog;
+        if (current == null) {
+            return "none";
+        }
+        long ageMs = Math.max(0L, System.currentTimeMillis() - current.pricesAsOf());
+        return current.size() + " cards, prices " + TimeUnit.MILLISECONDS.toHours(ageMs) + " h old"
+            + (ageMs > PRICE_TTL_MS ? " (stale; cards are re-fetched as they are requested)" : "");
+    }
+
+    /**
+     * Restores the cache from the snapshot file named by deckdiffer.snapshot.path, then keeps saving it
+     * there periodically and at shutdown. An empty path disables snapshots.
+     */
+    public static void startSnapshots() {
+        String snapshotPath = System.getProperty("deckdiffer.snapshot.path", "card-cache.snapshot");
+        if (snapshotPath.isBlank()) {
+            return;
+        }
+
+        CardCacheSnapshot cacheSnapshot = new CardCacheSnapshot(Path.of(snapshotPath), cardDataCache, aliases);
+        long start = System.nanoTime();
+        int restored = cacheSnapshot.restore();
+        BloomFilter filter = knownNames;
+        if (filter != null) {
+            cardDataCache.entries().forEach(card -> filter.add(card.key));
+            aliases.keySet().forEach(filter::add);
+        }
+        if (restored > 0) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Restored " + restored + " cached cards from " + snapshotPath + " in " + elapsedMs + " ms");
+        }
+
+        cacheSnapshot.startSaving(TimeUnit.SECONDS.toMillis(Long.getLong("deckdiffer.snapshot.intervalSeconds", 300L)));
+    }
+
+    /**
+     * Loads the access log, starts flushing it, and starts pre-loading the most requested cards
+     * on a background thread, unless disabled with deckdiffer.warmup.enabled=false
+     */
+    public static void startWarmup() {
+        accessLog.load();
+        accessLog.startFlushing(TimeUnit.SECONDS.toMillis(Long.getLong("deckdiffer.accessLog.flushSeconds", 60L)));
+
+        if (!Boolean.parseBoolean(System.getProperty("deckdiffer.warmup.enabled", "true"))) {
+            return;
+        }
+        CacheWarmer cacheWarmer = new CacheWarmer(
+            accessLog.topNames(Integer.getInteger("deckdiffer.warmup.topCards", 2_000)),
+            Double.parseDouble(System.getProperty("deckdiffer.warmup.readyCoverage", "0.9"))
+        );
+        warmer = cacheWarmer;
+        cacheWarmer.start();
+    }
+
+    /**
+     * @return true once the startup warm-up has covered enough of the most requested cards
+     *         (or finished, or was never started)
+     */
+    public static boolean isReady() {
+        CacheWarmer current = warmer;
+        return catalogIndexes.isDone() && (current == null || current.isReady());
+    }
+
+    /**
+     * @return progress of the startup warm-up, including the catalog's name indexes
+     */
+    public static String warmupStatus() {
+        CacheWarmer current = warmer;
+        String status = current == null ? "not started" : current.status();
+        if (catalog == null) {
+            return status;
+        }
+        return status + "; catalog name indexes " + (catalogIndexes.isDone() ? "built" : "building");
+    }
+
+    /**
+     * @param cardName - the name of the card as a string
+     * @return true if the card can be answered without a network call: fresh in the cache,
+     *         in the catalog, or recently reported as not found
+     */
+    static boolean isWarm(String cardName) {
+        String key = canonicalKey(cardName);
+        return cardDataCache.containsFresh(key)
+            || lookupInCatalog(cardName) != null
+            || negativeCache.lookup(key) == NegativeCache.Reason.NOT_FOUND;
+    }
+
     /**
      * Populates the cache using the fast batch API for all required cards.
      * DeckListDifferServer calls this method just once per comparison.
+     *
+     * Names another request is already fetching are not fetched again; this call waits for
+     * that fetch instead. Misses are sent through CardFetchScheduler, so they share
+     * /cards/collection requests with misses from other concurrent comparisons.
      * 
      * @param cardNames - A set of strings representing names of cards
      */
     public static void populateCacheInBatch(Set<String> cardNames) {
-        // Don't include names already in the cache
-        Set<String> namesToFetch = new HashSet<>();
-        for (String name : cardNames) {
-            if (!cardDataCache.containsKey(name.toLowerCase())) {
-                namesToFetch.add(name);
+        populateCacheInBatch(cardNames, Deadline.none());
+    }
+
+    /**
+     * Populates the cache like populateCacheInBatch(Set), but stops waiting when the deadline passes.
+     * Lookups still running then are bounded by the same deadline and land in the cache if they finish;
+     * the caller renders those cards as pending.
+     *
+     * @param cardNames - A set of strings representing names of cards
+     * @param deadline - deadline of the requesting comparison
+     */
+    public static void populateCacheInBatch(Set<String> cardNames, Deadline deadline) {
+        populateCacheInBatch(cardNames, deadline, new HashMap<>());
+    }
+
+    /**
+     * @param cardNames - A set of strings representing names of cards
+     * @param deadline - deadline of the requesting comparison
+     * @param localMatches - catalog matches of the request's names so far; filled in as names are matched
+     */
+    private static void populateCacheInBatch(Set<String> cardNames, Deadline deadline, Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches) {
+        // Don't include names already in the cache or the local catalog,
+        // and claim the rest so concurrent requests wait on this fetch
+        Map<String, CompletableFuture<CardData>> claimed = new HashMap<>();
+        List<CompletableFuture<CardData>> othersInFlight = new ArrayList<>();
+
+        // While the Scryfall circuit breaker is open, fetch nothing; fetchCardData serves stale data instead
+        if (networkFallback && ScryfallClient.isAvailable()) {
+            for (String name : cardNames) {
+                String key = canonicalKey(name);
+                if (cardDataCache.containsFresh(key) || (isKnownName(name) && lookupInCatalog(name) != null)
+                        || negativeCache.lookup(key) != null) {
+                    continue;
+                }
+
+                // A stale price is served as is; refresh it without making this request wait
+                if (cardDataCache.getStale(key) != null) {
+                    revalidate(name, key);
+                    continue;
+                }
+
+                // Misspelling of a catalog card: resolved in-process, no network call
+                if (correctLocally(name, localMatches) != null) {
+                    continue;
+                }
+
+                // Junk line or a typo too far from any card: not found, without asking Scryfall
+                if (isUnknownToCompleteCatalog(name)) {
+                    negativeCache.record(key, NegativeCache.Reason.NOT_FOUND);
+                    continue;
+                }
+
+                CompletableFuture<CardData> mine = new CompletableFuture<>();
+                CompletableFuture<CardData> existing = inFlight.putIfAbsent(key, mine);
+                if (existing == null) {
+                    claimed.put(name, mine);
+                }
+                else {
+                    othersInFlight.add(existing);
+                }
             }
         }
 
-        if (namesToFetch.isEmpty()) {
-            return;
+        // Queue our misses into the shared batch window. Names the known-name filter rejects skip it.
+        // Names the batch endpoint does not resolve
+        // (typos, Alchemy "A-" names, odd split-card spellings) go straight on to a parallel fuzzy pass,
+        // so a request never ends in one serial lookup per missing card.
+        // Names whose batch failed skip the fuzzy pass and are remembered as transient failures,
+        // so an outage is not answered with one more request per card.
+        // Each claim is released once its card is resolved; null tells waiters it was not.
+        List<CompletableFuture<CardData>> ours = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<CardData>> claim : claimed.entrySet()) {
+            String name = claim.getKey();
+            String key = canonicalKey(name);
+            CompletableFuture<CardData> mine = claim.getValue();
+
+            // A name no card answers to cannot match exactly; don't spend a batch slot on it
+            CompletableFuture<DecodedCard> exact = isKnownName(name)
+                ? CardFetchScheduler.submit(name, deadline)
+                : CompletableFuture.completedFuture(null);
+
+            ours.add(exact
+                .thenCompose(card -> card != null ? CompletableFuture.completedFuture(card) : fetchMissingAsync(name, deadline))
+                .thenApply(card -> {
+                    if (card == null) return null;
+
+                    // Add result to our static cache under its canonical name; every spelling aliases to it
+                    cardDataCache.put(registerAliases(name, card), card.data);
+                    return card.data;
+                })
+                .whenComplete((data, error) -> {
+                    // A lookup cut short by the deadline is retried on the next request, not remembered
+                    if (error != null && !deadline.isExpired()) {
+                        negativeCache.record(key, NegativeCache.Reason.TRANSIENT_ERROR);
+                    }
+                    mine.complete(error == null ? data : null);
+                    inFlight.remove(key, mine);
+                }));
         }
 
-        // Execute fast batch fetch
-        Map<String, JSONObject> newFetchedJson = ScryfallBatchFetcher.fetchBatchJson(namesToFetch);
-
-        // Add results to our static caches
-        for (Map.Entry<String, JSONObject> entry : newFetchedJson.entrySet()) {
-            String cardName = entry.getKey();
-            JSONObject json = entry.getValue();
-            String key = cardName.toLowerCase();
-
-            cardJsonCache.put(key, json);
-            CardData data = buildCardDataFromJson(json);
-            cardDataCache.put(key, data);
+        List<CompletableFuture<CardData>> waits = new ArrayList<>(ours.size() + othersInFlight.size());
+        for (CompletableFuture<CardData> future : ours) {
+            waits.add(future.exceptionally(e -> null));
+        }
+        for (CompletableFuture<CardData> other : othersInFlight) {
+            waits.add(other.exceptionally(e -> null));
         }
+
+        deadline.await(CompletableFuture.allOf(waits.toArray(new CompletableFuture<?>[0])), null);
     }
 
     /**
      * Fetches card data from either the cardDataCache or calls fetchCardJson to call API
+     * Cached cards whose price has gone stale are returned at once with priceStale set,
+     * and re-fetched in the background so a later request gets the fresh price.
+     * If another request is already fetching the card, waits for that result instead.
      * 
      * @param cardName
      * @return CardData object extracted from cache or fetchCardJson
      */
     public static CardData fetchCardData(String cardName) {
-        String key = cardName.toLowerCase();
+        return fetchCardData(cardName, Deadline.none());
+    }
 
-        if (cardDataCache.containsKey(key)) {
-            return cardDataCache.get(key);
-        }
+    /**
+     * Fetches card data like fetchCardData(String), waiting no longer than the deadline.
+     *
+     * @param cardName - the name of the card as a string
+     * @param deadline - deadline of the requesting comparison
+     * @return CardData for the card; its stale cached data or CardData.pending() if it was not
+     *         available in time; a placeholder if it does not exist
+     */
+    public static CardData fetchCardData(String cardName, Deadline deadline) {
+        return fetchCardData(cardName, cardName.toLowerCase(), deadline, new HashMap<>());
+    }
 
-        JSONObject json = cardJsonCache.get(key);
+    /**
+     * Resolves the card data of a comparison's cards once, into a snapshot indexed by card id.
+     * The cards are batch-fetched first (populateCacheInBatch), then each is read from the cache
+     * exactly once, so the diff, stats and rendering never look a card up again.
+     *
+     * @param dictionary - dictionary the ids belong to
+     * @param ids - distinct card ids to resolve
+     * @param deadline - deadline of the requesting comparison
+     * @return snapshot holding the CardData (possibly pending or a placeholder) of every id
+     */
+    public static CardSnapshot resolveSnapshot(CardDictionary dictionary, int[] ids, Deadline deadline) {
+        int[] sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
 
-        // if no JSON, fetch it (slow fallback)
-        if (json == null) {
-             json = fetchCardJson(cardName);
+        Set<String> cardNames = new HashSet<>();
+        for (int id : sortedIds) {
+            cardNames.add(dictionary.name(id));
+        }
+        // Each unknown name is matched against the catalog once; the batch pass, the per-card pass
+        // and the "did you mean" hints all read this
+        Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches = new HashMap<>();
+        populateCacheInBatch(cardNames, deadline, localMatches);
+
+        CardData[] data = new CardData[sortedIds.length];
+        for (int i = 0; i < sortedIds.length; i++) {
+            int id = sortedIds[i];
+            data[i] = fetchCardData(dictionary.name(id), dictionary.lookupKey(id), deadline, localMatches);
         }
+        return new CardSnapshot(dictionary, sortedIds, data, localMatches);
+    }
 
-        CardData data;
+    /**
+     * Fills in the cards of a snapshot that were still pending at its deadline with what the cache
+     * holds now; lookups that finish after the deadline still land there. Never goes to the network,
+     * so it is cheap enough to call whenever a snapshot is read again, e.g. for a download.
+     *
+     * @param snapshot - snapshot resolved earlier
+     * @return snapshot with every since-fetched card filled in (the same one if nothing changed)
+     */
+    public static CardSnapshot settle(CardSnapshot snapshot) {
+        CardDictionary dictionary = snapshot.dictionary();
+        CardData[] settled = null;
 
-        if (json == null) {
-            data = new CardData(
-                null,
-                List.of(),
-                "Other",
-                List.of(),
-                "Colorless",
-                0.0,
-                null,
-                null,
-                0.0,
-                Map.of()
-            );
-        }
-        else {
-            data = buildCardDataFromJson(json);
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (!snapshot.dataAt(i).isPending()) {
+                continue;
+            }
+            int id = snapshot.idAt(i);
+            CardData late = cardDataCache.getStale(canonicalKey(dictionary.name(id), dictionary.lookupKey(id)));
+            if (late == null) {
+                continue;
+            }
+            if (settled == null) {
+                settled = snapshot.dataCopy();
+            }
+            settled[i] = late.priceAgeMillis() <= PRICE_TTL_MS ? late : late.withStalePrice();
         }
-
-        cardDataCache.put(key, data);
-        return data;
+        return settled == null ? snapshot : snapshot.withData(settled);
     }
 
     // ---------------
@@ -118,240 +531,468 @@ public class CardDataProvider {
     // ---------------
 
     /**
-     * Performs fuzzy-name Scryfall API request for a given card (cardName) and returns JSON from endpoint
-     * 
-     * @param cardName - the name of the card to query as a string
-     * @return JSONObject representing Scryfall card data
+     * @param cardName - the name of the card as typed
+     * @param lowerName - cardName.toLowerCase(), precomputed by the caller
+     * @param deadline - deadline of the requesting comparison
+     * @param localMatches - catalog matches of the request's names so far
      */
-    private static JSONObject fetchCardJson(String cardName) {
-        String key = cardName.toLowerCase();
+    private static CardData fetchCardData(String cardName, String lowerName, Deadline deadline, Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches) {
+        String key = canonicalKey(cardName, lowerName);
+        priceRefresher.recordAccess(key);
+        accessLog.record(key);
+
+        CardData cached = cardDataCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
 
-        if (cardJsonCache.containsKey(key)) {
-            return cardJsonCache.get(key);
+        CardData catalogData = isKnownName(cardName) ? lookupInCatalog(cardName) : correctLocally(cardName, localMatches);
+        if (catalogData != null && catalogData.priceAgeMillis() <= PRICE_TTL_MS) {
+            return catalogData;
         }
 
-        try {
-            String query = "https://api.scryfall.com/cards/named?fuzzy=" +
-                           cardName.trim().replace(" ", "+");
+        // Stale-while-revalidate: answer with the last known price now, refresh it for next time
+        CardData stale = cardDataCache.getStale(key);
+        if (stale != null) {
+            revalidate(cardName, key);
+            return stale.withStalePrice();
+        }
+
+        // The catalog's prices are older than the price TTL; once re-fetched, the card is served from the cache
+        if (catalogData != null) {
+            revalidate(catalogData.name, catalogData.name.toLowerCase());
+            return catalogData.withStalePrice();
+        }
 
-            HttpURLConnection conn = (HttpURLConnection) new URL(query).openConnection();
-            conn.setRequestMethod("GET");
+        // Neither the catalog nor the local matcher knows the name; Scryfall would not either
+        if (isUnknownToCompleteCatalog(cardName)) {
+            negativeCache.record(key, NegativeCache.Reason.NOT_FOUND);
+            return CardData.placeholder();
+        }
 
-            BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
+        // Don't wait on calls that are going to fail fast anyway
+        if (!ScryfallClient.isAvailable()) {
+            return staleOrPlaceholder(key);
+        }
+        if (deadline.isExpired()) {
+            return staleOrPending(key);
+        }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line);
+        // A batch in flight may not resolve this name, in which case we fetch it ourselves.
+        // Bounded so a stream of unrelated batches can never keep us waiting.
+        for (int attempt = 0; attempt < MAX_IN_FLIGHT_WAITS; attempt++) {
+            CompletableFuture<CardData> existing = inFlight.get(key);
+            if (existing == null) {
+                break;
             }
-            br.close();
 
-            JSONObject json = new JSONObject(response.toString());
+            CardData shared = deadline.await(existing, null);
+            if (shared != null) {
+                return shared;
+            }
+            if (deadline.isExpired()) {
+                return staleOrPending(key);
+            }
+        }
 
-            cardJsonCache.put(key, json);
-            return json;
+        // Claim the lookup; if someone else beat us to it, share their result
+        CompletableFuture<CardData> mine = new CompletableFuture<>();
+        CompletableFuture<CardData> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            CardData shared = deadline.await(existing, null);
+            if (shared != null) {
+                return shared;
+            }
+            return deadline.isExpired() ? staleOrPending(key) : fetchCardDataUncoordinated(cardName, deadline);
         }
-        catch (Exception e) {
-            cardJsonCache.put(key, null);
-            System.err.println("Failed to fetch card JSON for " + cardName + ": " + e.getMessage());
-            return null;
+
+        try {
+            CardData data = fetchCardDataUncoordinated(cardName, deadline);
+
+            // Waiters with more time left should fetch it themselves rather than share a pending result
+            mine.complete(data.isPending() ? null : data);
+            return data;
+        }
+        catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inFlight.remove(key, mine);
         }
     }
 
     /**
-     * Builds and returns a CardData object from a card's json info
-     * 
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return CardData - CardData object populated and returned (model from CardData.java)
+     * Maps any known spelling of a card to the key its data is cached under
+     * (the lowercase canonical Scryfall name)
+     *
+     * @param cardName - the name of the card as typed
+     * @return canonical cache key if the spelling is a known alias, else the lowercase name
+     */
+    private static String canonicalKey(String cardName) {
+        return canonicalKey(cardName, cardName.toLowerCase());
+    }
+
+    /**
+     * @param cardName - the name of the card as typed
+     * @param key - cardName.toLowerCase(), precomputed by the caller
      */
-    private static CardData buildCardDataFromJson(JSONObject json) {
+    static String canonicalKey(String cardName, String key) {
+        String canonical = aliases.get(key);
+        if (canonical == null) {
+            canonical = aliases.get(CardNames.normalize(cardName));
+        }
+        return canonical != null ? canonical : key;
+    }
 
-        List<String> types = extractTypesFromJson(json);
-        String primaryType = CardClassifier.fetchPrimaryType(types);
+    /**
+     * Records every spelling that should find this card: the requested name, the canonical name,
+     * each face name, and the normalized form of each.
+     *
+     * @param requestedName - the name that was looked up
+     * @param card - the card Scryfall returned for it
+     * @return canonical cache key for the card
+     */
+    private static String registerAliases(String requestedName, DecodedCard card) {
+        String canonical = card.name.toLowerCase();
+
+        List<String> spellings = new ArrayList<>();
+        spellings.add(requestedName);
+        spellings.add(card.name);
+        spellings.addAll(card.faceNames);
+
+        BloomFilter filter = knownNames;
+        for (String spelling : spellings) {
+            addAlias(spelling.toLowerCase(), canonical);
+            addAlias(CardNames.normalize(spelling), canonical);
+
+            // Cards newer than the catalog, and typos Scryfall corrected, are known from now on
+            if (filter != null) {
+                filter.add(spelling.toLowerCase());
+                filter.add(CardNames.normalize(spelling));
+            }
+        }
+        return canonical;
+    }
 
-        List<String> colors = extractColorsFromJson(json);
-        String colorCategory = CardClassifier.assignColorCategoryAsString(colors);
+    /**
+     * @param cardName - the name of the card as typed
+     * @return false only if no known card answers to the name, in any spelling; true without a catalog
+     */
+    private static boolean isKnownName(String cardName) {
+        BloomFilter filter = knownNames;
+        if (filter == null) {
+            return true;
+        }
+        String key = cardName.toLowerCase();
+        return filter.mightContain(key)
+            || filter.mightContain(CardNames.normalize(cardName))
+            || aliases.containsKey(key);
+    }
 
-        double price = extractPriceFromJson(json);
+    /**
+     * @param cardName - the name of the card as typed
+     * @return true if the known-name filter rejects the name and the catalog is recent enough
+     *         (deckdiffer.catalog.completeForDays) to be trusted to list every card
+     */
+    private static boolean isUnknownToCompleteCatalog(String cardName) {
+        CardCatalog current = catalog;
+        return current != null
+            && System.currentTimeMillis() - current.pricesAsOf() <= CATALOG_COMPLETE_MS
+            && !isKnownName(cardName);
+    }
 
-        String imageUrl = extractImageUrl(json);
-        String scryfallUrl = json.optString("scryfall_uri", null);
+    /**
+     * Builds the known-name filter and fuzzy matcher of a catalog and puts them in use,
+     * unless another catalog was installed in the meantime
+     *
+     * @param cardCatalog - installed catalog
+     * @param indexes - completed once the indexes are in use (or failed to build)
+     */
+    private static void buildCatalogIndexes(CardCatalog cardCatalog, CompletableFuture<Void> indexes) {
+        long start = System.nanoTime();
+        try {
+            BloomFilter filter = buildKnownNames(cardCatalog);
+            FuzzyNameMatcher matcher = FuzzyNameMatcher.fromCatalog(cardCatalog);
 
-        double cmc = extractCMC(json);
+            synchronized (CardDataProvider.class) {
+                if (catalog != cardCatalog) {
+                    return;
+                }
+                knownNames = filter;
+                fuzzyMatcher = matcher;
+            }
 
-        Map<String, Integer> pipCounts = parsePips(json.optString("mana_cost", ""));
+            // Cards restored from a snapshot while the filter was being built
+            cardDataCache.entries().forEach(card -> filter.add(card.key));
+            aliases.keySet().forEach(filter::add);
 
-        return new CardData(json, types, primaryType, colors, colorCategory, price, imageUrl, scryfallUrl, cmc, pipCounts);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Indexed " + matcher.size() + " catalog names for matching in " + elapsedMs + " ms");
+        }
+        catch (RuntimeException e) {
+            System.err.println("Failed to index catalog names: " + e.getMessage());
+        }
+        finally {
+            indexes.complete(null);
+        }
     }
 
     /**
-     * Extracts the cards types from json as a List<String>
-     * 
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return List of types from a card typeline
+     * Builds the known-name filter from every catalog lookup key, plus the cached cards and aliases
+     * (which include cards restored from a snapshot that are newer than the catalog)
+     *
+     * @param cardCatalog - installed catalog
+     * @return filter over all known spellings
      */
-    private static List<String> extractTypesFromJson(JSONObject json) {
-        List<String> types = new ArrayList<>();
-        if (json == null) return types;
+    private static BloomFilter buildKnownNames(CardCatalog cardCatalog) {
+        int[] catalogNames = new int[1];
+        cardCatalog.forEachName(name -> catalogNames[0]++);
 
-        String typeLine;
+        List<CardCache.CachedCard> cached = cardDataCache.entries();
 
-        // if card is MDFC
-        if (json.has("card_faces")) {
-            JSONArray faces = json.optJSONArray("card_faces");
-            if (faces.length() > 0) {
-                typeLine = faces.getJSONObject(0).optString("type_line", "");
-            }
-            else {
-                typeLine = json.optString("type_line", "");
-            }
-        }     
-        else {
-            typeLine = json.optString("type_line", "");
+        // Headroom for names learned from live lookups
+        int expected = catalogNames[0] + cached.size() + aliases.size() + MAX_ALIASES / 10;
+        BloomFilter filter = new BloomFilter(expected, KNOWN_NAMES_FALSE_POSITIVE_RATE);
+
+        cardCatalog.forEachName(filter::add);
+        for (CardCache.CachedCard card : cached) {
+            filter.add(card.key);
         }
+        aliases.keySet().forEach(filter::add);
 
-        // Relevant grouping types are found left of the -, which all cards have
-        String[] parts = typeLine.split("—");
-        String leftSide = parts[0].trim();
+        System.out.println("Known card name filter: " + expected + " names, " + filter.sizeInBytes() / 1024 + " KB");
+        return filter;
+    }
 
-        // Left side of typeline before "-" contains all candidate types
-        for (String word : leftSide.split("\\s+")) {
-            if (CARD_TYPES.contains(word)) {
-                types.add(word);
-            }
+    private static void addAlias(String alias, String canonical) {
+        if (alias.equals(canonical)) return;
+
+        // Rough bound: stop learning new spellings rather than grow without limit
+        if (aliases.size() < MAX_ALIASES || aliases.containsKey(alias)) {
+            aliases.put(alias, canonical);
         }
-        return types;
     }
 
     /**
-     * EX: {"White", "Black", "Blue"} - Non-abbreviated!
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return color identity list as a List<String> directly from the JSON
+     * Re-fetches a card whose cached price is stale through the shared batch window,
+     * at most once at a time per card. The stale entry is kept if the re-fetch fails.
+     *
+     * @param cardName - the name of the card as requested
+     * @param key - canonical cache key
      */
-    private static List<String> extractColorsFromJson(JSONObject json) {
-        List<String> res = new ArrayList<>();
-        if (json == null) return res;
+    private static void revalidate(String cardName, String key) {
+        if (!networkFallback || !ScryfallClient.isAvailable() || !revalidating.add(key)) {
+            return;
+        }
 
-        JSONArray arr = json.optJSONArray("color_identity");
-        if (arr != null) {
-            for (int i = 0; i < arr.length(); i++) {
-                res.add(arr.getString(i));
+        CardFetchScheduler.submit(cardName).whenComplete((card, error) -> {
+            if (card != null) {
+                cardDataCache.put(registerAliases(cardName, card), card.data);
             }
-        }
-        return res;
+            revalidating.remove(key);
+        });
     }
 
     /**
-     * Extracts image URL from JSONObject image_uris field
-     * 
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return String containing image url of card
+     * Network fuzzy correction for a name the batch endpoint did not resolve, or that the known-name
+     * filter rejected and the local matcher could not place while the catalog is too old to be trusted
+     * as complete (e.g. a card newer than the catalog): an asynchronous fuzzy lookup, so many missing
+     * names are looked up in parallel.
+     *
+     * @param cardName - the name of the card as a string
+     * @param deadline - deadline of the requesting comparison
+     * @return future of the decoded card, or null if it is unknown, recently failed, or out of time
      */
-    private static String extractImageUrl(JSONObject json) {
-        if (json == null) return null;
-
-        // Single faced cards
-        JSONObject img = json.optJSONObject("image_uris");
-        if (img != null) return img.optString("normal", null);
-
-        // MDFC cards
-        var faces = json.optJSONArray("card_faces");
-        if (faces != null && faces.length() > 0) {
-            JSONObject face = faces.getJSONObject(0);
-            JSONObject faceImg = face.optJSONObject("image_uris");
-            if (faceImg != null) return faceImg.optString("normal", null);
+    private static CompletableFuture<DecodedCard> fetchMissingAsync(String cardName, Deadline deadline) {
+        if (deadline.isExpired() || negativeCache.lookup(canonicalKey(cardName)) != null
+                || isUnknownToCompleteCatalog(cardName)) {
+            return CompletableFuture.completedFuture(null);
         }
-
-        return null;
+        return fetchCardJsonAsync(cardName, deadline);
     }
 
     /**
-     * Extracts cards approximate price (TCGPlayer) in USD
-     * 
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return double price in USD
+     * Fetches a card with the slow fuzzy lookup and caches the result, without single-flight coordination.
+     * Names that recently failed are answered from the negative cache without a network call.
+     * A result that arrives after the deadline is still cached for later requests.
+     *
+     * @param cardName - the name of the card as a string
+     * @param deadline - deadline of the requesting comparison
+     * @return CardData for the card, its stale cached data, CardData.pending() if the deadline passed first,
+     *         or an empty placeholder if it could not be found
      */
-    private static double extractPriceFromJson(JSONObject json) {
-        if (json == null) return 0.0;
-
-        JSONObject prices = json.optJSONObject("prices");
-        if (prices == null) return 0.0;
+    private static CardData fetchCardDataUncoordinated(String cardName, Deadline deadline) {
+        String key = canonicalKey(cardName);
+        if (!networkFallback || negativeCache.lookup(key) != null || isUnknownToCompleteCatalog(cardName)) {
+            return staleOrPlaceholder(key);
+        }
 
-        String usd = prices.optString("usd", "0.0");
+        CompletableFuture<DecodedCard> lookup = fetchCardJsonAsync(cardName, deadline).thenApply(card -> {
+            if (card != null) {
+                cardDataCache.put(registerAliases(cardName, card), card.data);
+            }
+            return card;
+        });
 
-        try {
-            return Double.parseDouble(usd);
-        }
-        catch (Exception e) {
-            return 0.0;
+        DecodedCard card = deadline.await(lookup, null);
+        if (card != null) {
+            return card.data;
         }
+        return deadline.isExpired() ? staleOrPending(canonicalKey(cardName)) : staleOrPlaceholder(canonicalKey(cardName));
     }
 
     /**
-     * Extracts cards converted mana cost (cmc) as a double
-     * 
-     * @param json - JSONObject representing a card's data, returned from Scryfall
-     * @return double representing converted mana cost
+     * Fallback when a card cannot be fetched right now
+     *
+     * @param key - canonical cache key
+     * @return the expired cache entry marked as priceStale, or a placeholder if there is none
      */
-    private static double extractCMC(JSONObject json){
-        if (json == null) return 0.0;
-        return json.optDouble("cmc", 0.0);
+    private static CardData staleOrPlaceholder(String key) {
+        CardData stale = cardDataCache.getStale(key);
+        return stale != null ? stale.withStalePrice() : CardData.placeholder();
     }
 
     /**
-     * Extracts cards colored mana cost as a Map<String, Integer>
-     * 
-     * @param String manaCost
-     * @return Map<String, Integer> mapping Mana color (WUBRG) to amount
+     * Fallback when the deadline passed before a card could be fetched
+     *
+     * @param key - canonical cache key
+     * @return the expired cache entry marked as priceStale, or CardData.pending() if there is none
      */
-    private static Map<String, Integer> parsePips(String manaCost){
-        Map<String, Integer> pipMap = new HashMap<>();
-        String[] wubrg = {"W", "U", "B", "R", "G"};
-        
-        // init
-        for (String color: wubrg){
-            pipMap.put(color, 0);
+    private static CardData staleOrPending(String key) {
+        CardData stale = cardDataCache.getStale(key);
+        return stale != null ? stale.withStalePrice() : CardData.pending();
+    }
+
+    /**
+     * @param cardName - the name of the card as a string
+     * @return CardData from the installed catalog, or null if there is none or it lacks the card
+     */
+    private static CardData lookupInCatalog(String cardName) {
+        CardCatalog current = catalog;
+        if (current == null) {
+            return null;
         }
 
-        pipMap.put("C", 0); // represents colorless
+        CardData data = current.lookup(cardName);
+        if (data == null) {
+            // Catalogs also index accent- and whitespace-insensitive spellings
+            String normalized = CardNames.normalize(cardName);
+            if (!normalized.equals(cardName.toLowerCase())) {
+                data = current.lookup(normalized);
+            }
+        }
+        if (data == null) {
+            // Misspellings corrected earlier are aliases of their canonical name
+            String canonical = canonicalKey(cardName);
+            if (!canonical.equals(cardName.toLowerCase())) {
+                data = current.lookup(canonical);
+            }
+        }
+        return data;
+    }
 
-        if (manaCost == null || manaCost.isEmpty()){
-            return pipMap;
+    /**
+     * Corrects a misspelled name against the catalog, in-process. The correction is only made when
+     * the best match is close and clearly better than any other card; it is then remembered as an alias.
+     *
+     * @param cardName - the name of the card as typed
+     * @param localMatches - catalog matches of the request's names so far; the name's matches are added
+     *                       if it has none yet, so the request queries the matcher once per name
+     * @return CardData of the corrected card, or null if there is no catalog or no confident match
+     */
+    private static CardData correctLocally(String cardName, Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches) {
+        FuzzyNameMatcher matcher = fuzzyMatcher;
+        CardCatalog current = catalog;
+        if (matcher == null || current == null) {
+            return null;
         }
 
-        for (String chunk : manaCost.split("\\}")){
-            int open = chunk.indexOf('{');
-            if (open < 0){
-                continue;
-            }
+        List<FuzzyNameMatcher.Suggestion> matches = localMatches.computeIfAbsent(
+            cardName, name -> matcher.suggest(name, LOCAL_MATCH_LIMIT, LOCAL_MATCH_SCORE));
 
-            String symbol = chunk.substring(open + 1).trim();
+        CardData best = null;
+        double bestScore = 0.0;
+        for (FuzzyNameMatcher.Suggestion suggestion : matches) {
+            if (suggestion.score < AUTO_CORRECT_SCORE - AUTO_CORRECT_MARGIN) break;
 
-            // Numerate the generic mana first
-            try{
-                int genericCost = Integer.parseInt(symbol);
-                pipMap.put("C", pipMap.get("C") + genericCost);
-                continue;
-            }
-            catch (Exception e){}
+            CardData data = current.lookup(suggestion.name);
+            if (data == null || !data.isFound()) continue;
 
-            // Numerate WUBRG
-            if (pipMap.containsKey(symbol)){
-                pipMap.put(symbol, pipMap.get(symbol) + 1);
+            if (best == null) {
+                best = data;
+                bestScore = suggestion.score;
+            }
+            else if (!data.name.equals(best.name)) {
+                // Another card is about as close; too ambiguous to pick one
+                if (bestScore - suggestion.score < AUTO_CORRECT_MARGIN) {
+                    return null;
+                }
+                break;
             }
+        }
+        if (best == null || bestScore < AUTO_CORRECT_SCORE) {
+            return null;
+        }
 
-            // Hybrid Mana, ex: "W/G" for pay with white or green
-            // we still count it as if it were 1.
-            // "W/G" contributes 1 white pip AND 1 green pip
-            if (symbol.contains("/")){
-                String[] manaParts = symbol.split("/");
-                for (String part: manaParts){
-                    if (pipMap.containsKey(part)){
-                        pipMap.put(part, pipMap.get(part) + 1);
-                    }
+        String canonical = best.name.toLowerCase();
+        addAlias(cardName.toLowerCase(), canonical);
+        addAlias(CardNames.normalize(cardName), canonical);
+        return best;
+    }
+
+    /**
+     * Performs fuzzy-name Scryfall API request for a given card (cardName) and returns JSON from endpoint
+     * Failures are recorded in the negative cache: a 404 as NOT_FOUND, anything else as TRANSIENT_ERROR.
+     * 
+     * @param cardName - the name of the card to query as a string
+     * @param deadline - deadline of the requesting comparison
+     * @return future of the decoded Scryfall card, or null if the lookup failed
+     */
+    private static CompletableFuture<DecodedCard> fetchCardJsonAsync(String cardName, Deadline deadline) {
+        String query = SCRYFALL_NAMED_URL + URLEncoder.encode(cardName.trim(), StandardCharsets.UTF_8);
+
+        return ScryfallClient.getAsync(query, deadline)
+            .thenApply(response -> readNamedResponse(cardName, response))
+            .exceptionally(e -> {
+                // Running out of time is not the card's fault; don't suppress the next lookup
+                if (!deadline.isExpired()) {
+                    negativeCache.record(canonicalKey(cardName), NegativeCache.Reason.TRANSIENT_ERROR);
                 }
+                System.err.println("Failed to fetch card JSON for " + cardName + ": " + e.getMessage());
+                return null;
+            });
+    }
+
+    /**
+     * Reads a /cards/named response
+     *
+     * @param cardName - the name that was looked up
+     * @param response - Scryfall's response
+     * @return decoded Scryfall card, or null if the lookup failed
+     */
+    private static DecodedCard readNamedResponse(String cardName, ScryfallClient.Response response) {
+        String key = canonicalKey(cardName);
+
+        try (response) {
+            // Scryfall answers 404 when no card matches the fuzzy name
+            if (response.status == 404) {
+                negativeCache.record(key, NegativeCache.Reason.NOT_FOUND);
+                System.err.println("No Scryfall card matches " + cardName);
+                return null;
+            }
+            if (response.status != 200) {
+                negativeCache.record(key, NegativeCache.Reason.TRANSIENT_ERROR);
+                System.err.println("Failed to fetch card JSON for " + cardName + ": HTTP " + response.status);
+                return null;
             }
+
+            return ScryfallCardDecoder.decodeCard(response.body());
+        }
+        catch (IOException | RuntimeException e) {
+            negativeCache.record(key, NegativeCache.Reason.TRANSIENT_ERROR);
+            System.err.println("Failed to fetch card JSON for " + cardName + ": " + e.getMessage());
+            return null;
         }
-        return pipMap;
     }
 }
\ No newline at end of file
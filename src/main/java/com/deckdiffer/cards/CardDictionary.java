@@ -0,0 +1,143 @@
+/**
+ * CardDictionary.java; Interning of card names to dense int ids, with one dictionary per comparison.
+ *
+ * DeckParser hashes each card name exactly once, when it assigns the name its id. Ids are issued by a
+ * process-wide table keyed by the card's canonical cache key (see CardDataProvider.canonicalKey), so
+ * "Sol Ring", "sol ring" and any other known spelling of a card share one id. From then on decks, diffs,
+ * stats and card data are all keyed by the id, and the lookup key is read back from an array.
+ *
+ * The spelling shown for an id is the one typed in this comparison (the first, if its decklists spell
+ * a card more than one way); a comparison never shows a spelling another user typed. A dictionary
+ * also remembers which id each spelling got, so a spelling keeps its id for the whole comparison even
+ * if another request teaches CardDataProvider a new alias meanwhile. It is used by one request at a
+ * time and is not thread-safe.
+ *
+ * Ids are never reused, so the shared table only grows. Once it holds maxNames keys, forRequest()
+ * starts a fresh table for new comparisons; requests still holding the old one keep using it
+ * and it is collected when they finish. Ids are only meaningful within the table that issued them.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class CardDictionary {
+
+    private static final int MAX_NAMES = Integer.getInteger("deckdiffer.dictionary.maxNames", 200_000);
+
+    private static volatile KeyTable shared = new KeyTable();
+
+    private final KeyTable keys;
+
+    // Lowercase spelling as typed in this comparison -> id
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    // Id -> spelling typed in this comparison, first one wins
+    private final Map<Integer, String> spellings = new HashMap<>();
+
+    private CardDictionary(KeyTable keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @return a dictionary for one new comparison
+     */
+    public static CardDictionary forRequest() {
+        KeyTable table = shared;
+        if (table.size >= MAX_NAMES) {
+            synchronized (CardDictionary.class) {
+                if (shared.size >= MAX_NAMES) {
+                    shared = new KeyTable();
+                }
+                table = shared;
+            }
+        }
+        return new CardDictionary(table);
+    }
+
+    /**
+     * Returns the id of a card name, assigning the next id if no spelling of the card has been seen
+     *
+     * @param cardName - the name of the card as typed (after face stripping)
+     * @return dense id shared by every known spelling of the card
+     */
+    public int idOf(String cardName) {
+        String lowerName = cardName.toLowerCase();
+        Integer id = ids.get(lowerName);
+        if (id == null) {
+            id = keys.idOf(CardDataProvider.canonicalKey(cardName, lowerName));
+            ids.put(lowerName, id);
+            spellings.putIfAbsent(id, cardName);
+        }
+        return id;
+    }
+
+    /**
+     * @param id - id issued to this dictionary
+     * @return the card name as spelled in this comparison
+     */
+    public String name(int id) {
+        String spelling = spellings.get(id);
+        return spelling != null ? spelling : keys.key(id);
+    }
+
+    /**
+     * @param id - id issued by this dictionary's table
+     * @return the canonical cache key of the card
+     */
+    public String lookupKey(int id) {
+        return keys.key(id);
+    }
+
+    /**
+     * @return number of keys interned so far, by every comparison sharing this dictionary's table
+     */
+    public int size() {
+        return keys.size;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    // Process-wide canonical key <-> id table
+    private static final class KeyTable {
+        // Canonical key -> id
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+        // Indexed by id. Replaced (never modified below size) when grown, under this;
+        // an id is published through ids only after its slot is written
+        private volatile String[] keys = new String[1024];
+        private volatile int size;
+
+        int idOf(String key) {
+            Integer id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+
+            synchronized (this) {
+                id = ids.get(key);
+                if (id != null) {
+                    return id;
+                }
+
+                int next = size;
+                if (next == keys.length) {
+                    keys = Arrays.copyOf(keys, next * 2);
+                }
+                keys[next] = key;
+                size = next + 1;
+                ids.put(key, next);
+                return next;
+            }
+        }
+
+        String key(int id) {
+            return keys[id];
+        }
+    }
+}
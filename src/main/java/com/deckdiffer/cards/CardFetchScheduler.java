@@ -0,0 +1,192 @@
+/**
+ * CardFetchScheduler.java; Merges card misses from all in-flight comparisons into shared
+ * /cards/collection requests.
+ *
+ * Each submit() adds one name to a process-wide pending batch. The batch is sent when it reaches
+ * Scryfall's 75-identifier limit or when the batching window (deckdiffer.scryfall.batchWindowMs)
+ * has passed since its first name arrived, whichever comes first. The response is then fanned back
+ * out to every waiting request, so five concurrent comparisons needing 10 new cards each cost one
+ * request instead of five half-empty ones.
+ *
+ * A batch runs under the latest deadline of the requests waiting on it. Names whose every waiter's
+ * deadline has already passed when the batch is sent are dropped from it.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.deckdiffer.cards.ScryfallCardDecoder.DecodedCard;
+
+public final class CardFetchScheduler {
+
+    private static final long BATCH_WINDOW_MS = Long.getLong("deckdiffer.scryfall.batchWindowMs", 25L);
+
+    // Fires the window timer; daemon so it never blocks shutdown
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scryfall-batch-window");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by LOCK: lowercase card name -> (requested name, waiting future), in arrival order
+    private static final Object LOCK = new Object();
+    private static final Map<String, Pending> pending = new LinkedHashMap<>();
+    private static ScheduledFuture<?> windowTimer;
+
+    // A name waiting for the next batch
+    private static final class Pending {
+        final String name;
+        final CompletableFuture<DecodedCard> result = new CompletableFuture<>();
+        Deadline deadline; // latest deadline among waiters; guarded by LOCK
+
+        Pending(String name, Deadline deadline) {
+            this.name = name;
+            this.deadline = deadline;
+        }
+    }
+
+    private CardFetchScheduler() {}
+
+    /**
+     * Queues a card for the next shared batch request
+     *
+     * @param cardName - the name of the card as a string
+     * @return future of the decoded card, completed with null if Scryfall reported it as not found,
+     *         or exceptionally with ScryfallUnavailableException if the batch request failed
+     */
+    public static CompletableFuture<DecodedCard> submit(String cardName) {
+        return submit(cardName, Deadline.none());
+    }
+
+    /**
+     * Queues a card for the next shared batch request on behalf of a request with a deadline
+     *
+     * @param cardName - the name of the card as a string
+     * @param deadline - deadline of the requesting comparison
+     * @return future of the decoded card (see submit(String)); fails with a TimeoutException if the
+     *         deadline passed before the batch was sent
+     */
+    public static CompletableFuture<DecodedCard> submit(String cardName, Deadline deadline) {
+        String key = cardName.toLowerCase();
+        List<Pending> fullBatch = null;
+        CompletableFuture<DecodedCard> result;
+
+        synchronized (LOCK) {
+            Pending entry = pending.get(key);
+            if (entry == null) {
+                entry = new Pending(cardName, deadline);
+                pending.put(key, entry);
+            }
+            else {
+                entry.deadline = Deadline.latest(entry.deadline, deadline);
+            }
+            result = entry.result;
+
+            if (pending.size() >= ScryfallBatchFetcher.MAX_BATCH_SIZE) {
+                fullBatch = drainLocked();
+            }
+            else if (windowTimer == null) {
+                windowTimer = TIMER.schedule(CardFetchScheduler::flushWindow, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return result;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * Timer callback: sends whatever has accumulated when the window closes
+     */
+    private static void flushWindow() {
+        List<Pending> batch;
+        synchronized (LOCK) {
+            windowTimer = null;
+            batch = drainLocked();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Removes up to one batch worth of pending names. Caller must hold LOCK.
+     * If names remain, a new window is started for them.
+     *
+     * @return pending entries to send
+     */
+    private static List<Pending> drainLocked() {
+        List<Pending> batch = new ArrayList<>();
+        var it = pending.values().iterator();
+        while (it.hasNext() && batch.size() < ScryfallBatchFetcher.MAX_BATCH_SIZE) {
+            batch.add(it.next());
+            it.remove();
+        }
+
+        if (pending.isEmpty()) {
+            if (windowTimer != null) {
+                windowTimer.cancel(false);
+                windowTimer = null;
+            }
+        }
+        else if (windowTimer == null) {
+            windowTimer = TIMER.schedule(CardFetchScheduler::flushWindow, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+        return batch;
+    }
+
+    /**
+     * Sends one batch and completes each waiting future with its decoded card (or null if not found).
+     * Names whose batch failed complete exceptionally, so callers can tell an outage from a typo.
+     *
+     * @param drained - pending entries, at most MAX_BATCH_SIZE
+     */
+    private static void dispatch(List<Pending> drained) {
+        // Nobody is waiting for names whose deadline already passed
+        List<Pending> batch = new ArrayList<>(drained.size());
+        Deadline batchDeadline = null;
+        synchronized (LOCK) {
+            for (Pending entry : drained) {
+                if (entry.deadline.isExpired()) {
+                    entry.result.completeExceptionally(new TimeoutException("Deadline passed before the batch was sent"));
+                    continue;
+                }
+                batch.add(entry);
+                batchDeadline = batchDeadline == null ? entry.deadline : Deadline.latest(batchDeadline, entry.deadline);
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        List<String> names = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            names.add(entry.name);
+        }
+
+        ScryfallBatchFetcher.fetchBatchAsync(names, batchDeadline).whenComplete((resolution, error) -> {
+            for (Pending entry : batch) {
+                if (error != null) {
+                    entry.result.completeExceptionally(error);
+                }
+                else if (resolution.failed.contains(entry.name)) {
+                    entry.result.completeExceptionally(new ScryfallUnavailableException("Scryfall batch request failed"));
+                }
+                else {
+                    entry.result.complete(resolution.found.get(entry.name));
+                }
+            }
+        });
+    }
+}
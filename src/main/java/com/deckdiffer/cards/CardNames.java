@@ -0,0 +1,38 @@
+/**
+ * CardNames.java; Helpers for matching the card names users type against Scryfall's canonical names.
+ */
+
+package com.deckdiffer.cards;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+public final class CardNames {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private CardNames() {}
+
+    /**
+     * Folds a card name to a spelling-insensitive lookup key:
+     * lowercase, accents removed, ligatures expanded, curly quotes straightened, whitespace collapsed.
+     *
+     * Ex: "Lim-Dûl's Vault" -> "lim-dul's vault", "Æther Vial" -> "aether vial"
+     *
+     * @param cardName - the name of the card as a string
+     * @return normalized key
+     */
+    public static String normalize(String cardName) {
+        String folded = cardName
+            .replace("Æ", "Ae")
+            .replace("æ", "ae")
+            .replace('’', '\'')
+            .replace('‘', '\'');
+
+        folded = Normalizer.normalize(folded, Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("");
+        folded = WHITESPACE.matcher(folded.trim()).replaceAll(" ");
+        return folded.toLowerCase();
+    }
+}
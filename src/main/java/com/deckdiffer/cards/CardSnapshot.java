@@ -0,0 +1,96 @@
+/**
+ * CardSnapshot.java; The card data one comparison resolved, indexed by card id.
+ *
+ * Built once per request by CardDataProvider.resolveSnapshot after the batch lookup, then read by
+ * the diff, stats, grouping and rendering code, so none of them touches the cache or the network.
+ * Ids are kept sorted with the data in a parallel array; get(id) is a binary search.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public final class CardSnapshot {
+
+    private final CardDictionary dictionary;
+    private final int[] ids;        // ascending
+    private final CardData[] data;  // data[i] belongs to ids[i]
+
+    // Name as typed -> catalog matches found while resolving it, for names the matcher was asked about;
+    // CardDataProvider.suggestNames reads them instead of querying the matcher again
+    final Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches;
+
+    CardSnapshot(CardDictionary dictionary, int[] sortedIds, CardData[] data, Map<String, List<FuzzyNameMatcher.Suggestion>> localMatches) {
+        if (sortedIds.length != data.length) {
+            throw new IllegalArgumentException("ids and data differ in length");
+        }
+        this.dictionary = dictionary;
+        this.ids = sortedIds;
+        this.data = data;
+        this.localMatches = localMatches;
+    }
+
+    /**
+     * @param id - card id
+     * @return the card's data, or null if the snapshot does not hold it
+     */
+    public CardData get(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? null : data[index];
+    }
+
+    /**
+     * @return number of cards in the snapshot
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param index - position in the snapshot, 0 to size() - 1
+     * @return card id at that position
+     */
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index - position in the snapshot, 0 to size() - 1
+     * @return card data at that position
+     */
+    public CardData dataAt(int index) {
+        return data[index];
+    }
+
+    /**
+     * @param settled - data of the same cards, in the same order
+     * @return snapshot of the same cards holding the given data
+     */
+    CardSnapshot withData(CardData[] settled) {
+        return new CardSnapshot(dictionary, ids, settled, localMatches);
+    }
+
+    /**
+     * @return copy of the data, in id order
+     */
+    CardData[] dataCopy() {
+        return data.clone();
+    }
+
+    /**
+     * @return dictionary the ids belong to
+     */
+    public CardDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param id - card id
+     * @return the card name the id stands for
+     */
+    public String name(int id) {
+        return dictionary.name(id);
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * CircuitBreaker.java; Stops calling a failing API for a while instead of piling more load onto it.
+ *
+ * Closed: calls go through and consecutive failures are counted.
+ * Open: after failureThreshold consecutive failures (or an explicit openFor), calls are refused
+ * immediately until the open period ends.
+ * Half-open: once the open period ends, a single trial call is let through; its success closes the
+ * breaker, its failure opens it again.
+ */
+
+package com.deckdiffer.cards;
+
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil; // epoch millis
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold - consecutive failures that open the breaker
+     * @param openMillis - how long the breaker stays open before a trial call is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold <= 0 || openMillis <= 0) {
+            throw new IllegalArgumentException("Failure threshold and open period must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Asks permission for one call. In the half-open state only the first caller is let through.
+     *
+     * @return true if the call may be made
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Records a successful call; closes the breaker
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed call; opens the breaker once the threshold is reached or a trial call fails
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open(openMillis);
+        }
+    }
+
+    /**
+     * Records a call that was abandoned (e.g. at the caller's deadline) without telling us anything
+     * about the API. Counts neither as success nor failure; if the call was the half-open trial,
+     * the breaker goes back to waiting for a trial so the next caller can make one.
+     */
+    public synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Opens the breaker for at least the given time, e.g. when the server asks us to back off
+     *
+     * @param millis - minimum open period
+     */
+    public synchronized void openFor(long millis) {
+        open(Math.max(millis, 0L));
+    }
+
+    /**
+     * @return true if calls are currently being refused (open, or half-open with the trial call outstanding)
+     */
+    public synchronized boolean isOpen() {
+        if (state == State.OPEN) {
+            return System.currentTimeMillis() < openUntil;
+        }
+        return state == State.HALF_OPEN && trialInFlight;
+    }
+
+    /**
+     * @return current state, for monitoring
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private void open(long millis) {
+        state = State.OPEN;
+        trialInFlight = false;
+        openUntil = Math.max(openUntil, System.currentTimeMillis() + millis);
+    }
+}
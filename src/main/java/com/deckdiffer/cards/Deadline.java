@@ -0,0 +1,95 @@
+/**
+ * Deadline.java; Point in time by which a request must be answered.
+ *
+ * Created once per /compare and passed down through CardDataProvider, the batch scheduler and
+ * ScryfallClient, so every wait (in-flight lookups, rate-limit permits, retries, HTTP timeouts)
+ * is bounded by what is left of the request's latency budget rather than by its own fixed timeout.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    // System.nanoTime() at expiry, or Long.MAX_VALUE for no deadline
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @param millis - budget from now
+     * @return deadline that expires after the given time
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0L)));
+    }
+
+    /**
+     * @return deadline that never expires
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * @return whichever of the two deadlines expires later
+     */
+    public static Deadline latest(Deadline a, Deadline b) {
+        if (a == NONE || b == NONE) return NONE;
+        return a.expiresAtNanos - b.expiresAtNanos >= 0 ? a : b;
+    }
+
+    /**
+     * @return true if this deadline has an expiry at all
+     */
+    public boolean isBounded() {
+        return this != NONE;
+    }
+
+    /**
+     * @return true once the deadline has passed
+     */
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * @return milliseconds left (0 once expired, Long.MAX_VALUE if unbounded)
+     */
+    public long remainingMillis() {
+        if (!isBounded()) return Long.MAX_VALUE;
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    /**
+     * Waits for a future, but no longer than the deadline
+     *
+     * @param future - result to wait for
+     * @param fallback - returned if the deadline passes first or the future fails
+     * @return the future's result, or fallback
+     */
+    public <T> T await(CompletableFuture<T> future, T fallback) {
+        try {
+            if (!isBounded()) {
+                return future.get();
+            }
+            return future.get(Math.max(0L, expiresAtNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException | ExecutionException | CancellationException e) {
+            return fallback;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * FuzzyNameMatcher.java; In-process fuzzy lookup of misspelled card names.
+ *
+ * Built once from a catalog's lookup keys. Names are indexed by their character trigrams
+ * ("bolt" -> "  b", " bo", "bol", "olt", "lt "), so a query only scores the names sharing
+ * the most trigrams with it. Those candidates are then ranked by edit distance:
+ *
+ *   score = 1 - levenshtein(query, name) / max(length of query, length of name)
+ *
+ * Everything is compared in CardNames.normalize form, so case, accents and whitespace never cost a point.
+ * The index is immutable once built and safe to query from any number of threads; each thread
+ * counts shared trigrams in its own reusable scratch buffer, so a query allocates nothing per indexed name.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class FuzzyNameMatcher {
+
+    // Candidates (by shared trigrams) whose edit distance is computed per query
+    private static final int MAX_CANDIDATES = 64;
+
+    // Names sharing less than this fraction of the query's trigrams are not considered
+    private static final double MIN_TRIGRAM_OVERLAP = 0.3;
+
+    // A ranked match for a query
+    public static final class Suggestion {
+        public final String name;  // matched name, in normalized form
+        public final double score; // 1.0 = identical after normalization
+
+        public Suggestion(String name, double score) {
+            this.name = name;
+            this.score = score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.2f)", name, score);
+        }
+    }
+
+    private final String[] names;
+    private final int[] trigramCounts; // distinct trigrams per name
+
+    // Trigram -> ids of the names containing it, ascending
+    private final Map<Long, int[]> postings;
+
+    // Per-thread shared-trigram counters, one per name; all zero between queries
+    private final ThreadLocal<int[]> scratch;
+
+    private FuzzyNameMatcher(String[] names, int[] trigramCounts, Map<Long, int[]> postings) {
+        this.names = names;
+        this.trigramCounts = trigramCounts;
+        this.postings = postings;
+        this.scratch = ThreadLocal.withInitial(() -> new int[names.length]);
+    }
+
+    /**
+     * @param cardCatalog - catalog whose lookup keys (full, face and normalized names) are indexed
+     * @return matcher over every name the catalog answers to
+     */
+    public static FuzzyNameMatcher fromCatalog(CardCatalog cardCatalog) {
+        Set<String> distinct = new LinkedHashSet<>();
+        cardCatalog.forEachName(name -> distinct.add(CardNames.normalize(name)));
+        return build(distinct);
+    }
+
+    /**
+     * @param cardNames - names to index
+     * @return matcher over the names
+     */
+    public static FuzzyNameMatcher build(Collection<String> cardNames) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String name : cardNames) {
+            distinct.add(CardNames.normalize(name));
+        }
+
+        String[] names = distinct.toArray(new String[0]);
+        int[] trigramCounts = new int[names.length];
+        Map<Long, List<Integer>> building = new HashMap<>();
+
+        for (int id = 0; id < names.length; id++) {
+            Set<Long> trigrams = trigrams(names[id]);
+            trigramCounts[id] = trigrams.size();
+            for (Long trigram : trigrams) {
+                building.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        return new FuzzyNameMatcher(names, trigramCounts, postings);
+    }
+
+    /**
+     * @param query - misspelled card name
+     * @param limit - maximum number of suggestions
+     * @param minScore - lowest score worth suggesting (0.0 - 1.0)
+     * @return best matches, highest score first; empty if nothing is close enough
+     */
+    public List<Suggestion> suggest(String query, int limit, double minScore) {
+        return suggest(CardNames.normalize(query), limit, minScore, scratch.get());
+    }
+
+    /**
+     * @return number of indexed names
+     */
+    public int size() {
+        return names.length;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * @param query - normalized query
+     * @param shared - scratch buffer of names.length zeros; left zeroed on return
+     */
+    private List<Suggestion> suggest(String query, int limit, double minScore, int[] shared) {
+        Set<Long> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Count shared trigrams per name, remembering which names were touched so the buffer can be reset
+        List<Integer> touched = new ArrayList<>();
+        for (Long trigram : queryTrigrams) {
+            int[] ids = postings.get(trigram);
+            if (ids == null) continue;
+            for (int id : ids) {
+                if (shared[id]++ == 0) {
+                    touched.add(id);
+                }
+            }
+        }
+
+        // Keep the names with the highest trigram similarity (Dice coefficient)
+        int minShared = (int) Math.ceil(queryTrigrams.size() * MIN_TRIGRAM_OVERLAP);
+        List<int[]> candidates = new ArrayList<>(); // (id, dice * 1_000_000)
+        for (int id : touched) {
+            int count = shared[id];
+            shared[id] = 0;
+            if (count >= minShared) {
+                int dice = (int) (2_000_000L * count / (queryTrigrams.size() + trigramCounts[id]));
+                candidates.add(new int[] { id, dice });
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(b[1], a[1]));
+
+        // Rank the best of them by edit distance
+        List<Suggestion> ranked = new ArrayList<>();
+        for (int i = 0; i < candidates.size() && i < MAX_CANDIDATES; i++) {
+            String name = names[candidates.get(i)[0]];
+            int maxLength = Math.max(query.length(), name.length());
+            int maxDistance = (int) Math.floor((1.0 - minScore) * maxLength);
+
+            int distance = boundedLevenshtein(query, name, maxDistance);
+            if (distance <= maxDistance) {
+                ranked.add(new Suggestion(name, 1.0 - (double) distance / maxLength));
+            }
+        }
+        ranked.sort((a, b) -> Double.compare(b.score, a.score));
+        return ranked.size() > limit ? List.copyOf(ranked.subList(0, limit)) : List.copyOf(ranked);
+    }
+
+    /**
+     * @param name - normalized name
+     * @return distinct trigrams of the name padded with two leading spaces and one trailing space,
+     *         each packed as three 16-bit chars
+     */
+    private static Set<Long> trigrams(String name) {
+        String padded = "  " + name + " ";
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Levenshtein distance that gives up once it must exceed maxDistance
+     *
+     * @return edit distance, or maxDistance + 1 if it is larger than maxDistance
+     */
+    private static int boundedLevenshtein(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
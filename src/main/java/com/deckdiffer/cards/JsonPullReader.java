@@ -0,0 +1,432 @@
+/**
+ * JsonPullReader.java; Minimal pull-style JSON tokenizer for decoding Scryfall payloads in one pass.
+ *
+ * The caller walks the document token by token (beginObject, selectName, nextString, ...) and
+ * calls skipValue() for anything it does not need. Skipped values are scanned, not parsed:
+ * no strings, maps or lists are allocated for them, so decoding a few fields out of a large card
+ * object costs little more than reading its bytes once.
+ *
+ * Optionally, the raw text of one value can be captured while it is being decoded
+ * (startCapture / endCapture), which is how CardData retains raw JSON without a second parse.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+final class JsonPullReader implements Closeable {
+
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT }
+
+    // Parser states, one per open container
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3; // name read, ':' and value still to come
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    // Token consumed by peek() but not yet by the caller; for NAME/STRING only the opening quote is consumed
+    private Token peeked;
+
+    // Reused for names, strings and numbers
+    private final StringBuilder scratch = new StringBuilder();
+
+    // Raw text of the value being captured, or null when not capturing
+    private StringBuilder capture;
+
+    JsonPullReader(Reader in) {
+        this.in = in;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    // ---------------
+    // Navigation
+    // ---------------
+
+    /**
+     * @return the type of the next token without consuming it
+     * @throws IOException on malformed input or read failure
+     */
+    Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int state = stack[stackSize - 1];
+        switch (state) {
+            case EMPTY_ARRAY: {
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                int c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != -1) pushBack(); // at end of input, let peekValue report it
+                break;
+            }
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                break;
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = nextNonWhitespace();
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (state == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw syntaxError("Expected a name");
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME: {
+                if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            }
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace() == -1) return peeked = Token.END_DOCUMENT;
+                throw syntaxError("Expected end of document");
+            default:
+                throw new IllegalStateException("Unknown state " + state);
+        }
+
+        return peeked = peekValue();
+    }
+
+    /**
+     * @return true if the current object or array has another element
+     */
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    // ---------------
+    // Values
+    // ---------------
+
+    /**
+     * Reads the next property name and matches it against the names the caller cares about,
+     * without allocating a String for it.
+     *
+     * @param options - property names to look for
+     * @return index of the matching option, or -1 if the name is not one of them
+     */
+    int selectName(String[] options) throws IOException {
+        expect(Token.NAME);
+        readString(scratch);
+
+        for (int i = 0; i < options.length; i++) {
+            if (options[i].contentEquals(scratch)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the next string value (numbers are returned as their literal text), or null for a JSON null
+     */
+    String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.NULL) {
+            peeked = null;
+            return null;
+        }
+        if (token == Token.NUMBER) {
+            peeked = null;
+            readNumber(scratch);
+            return scratch.toString();
+        }
+
+        expect(Token.STRING);
+        readString(scratch);
+        return scratch.toString();
+    }
+
+    /**
+     * @param fallback - value returned for a JSON null or an unparseable string
+     * @return the next number (quoted numbers are accepted)
+     */
+    double nextDouble(double fallback) throws IOException {
+        String text = nextString();
+        if (text == null || text.isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(text);
+        }
+        catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Skips the next value, including whole objects and arrays, without decoding it
+     */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+
+            switch (token) {
+                case BEGIN_OBJECT:
+                    push(EMPTY_OBJECT);
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    push(EMPTY_ARRAY);
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    stackSize--;
+                    depth--;
+                    break;
+                case NAME:
+                case STRING:
+                    skipString();
+                    break;
+                case NUMBER:
+                    skipNumber();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    // true / false / null were fully consumed by peek()
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    // ---------------
+    // Raw Capture
+    // ---------------
+
+    /**
+     * Starts recording the raw text of the next value, which must be an object
+     */
+    void startCapture() throws IOException {
+        if (peek() != Token.BEGIN_OBJECT) {
+            throw syntaxError("Can only capture objects");
+        }
+        // The opening brace was already consumed by peek()
+        capture = new StringBuilder(4096).append('{');
+    }
+
+    /**
+     * @return raw text recorded since startCapture
+     */
+    String endCapture() {
+        String raw = capture.toString();
+        capture = null;
+        return raw;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private Token peekValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case 't': consumeLiteral("rue"); return Token.TRUE;
+            case 'f': consumeLiteral("alse"); return Token.FALSE;
+            case 'n': consumeLiteral("ull"); return Token.NULL;
+            case -1: throw syntaxError("Unexpected end of document");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pushBack();
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token actual = peek();
+        if (actual != expected) {
+            throw syntaxError("Expected " + expected + " but was " + actual);
+        }
+        peeked = null;
+    }
+
+    private void push(int state) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = state;
+    }
+
+    /**
+     * Reads string contents after the opening quote, decoding escapes
+     */
+    private void readString(StringBuilder out) throws IOException {
+        out.setLength(0);
+        while (true) {
+            int c = nextChar();
+            if (c == '"') return;
+            if (c == -1) throw syntaxError("Unterminated string");
+
+            if (c == '\\') {
+                int escaped = nextChar();
+                switch (escaped) {
+                    case 'n': out.append('\n'); break;
+                    case 't': out.append('\t'); break;
+                    case 'r': out.append('\r'); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'u': out.append(readUnicodeEscape()); break;
+                    case -1: throw syntaxError("Unterminated escape");
+                    default: out.append((char) escaped); break; // \" \\ \/
+                }
+            }
+            else {
+                out.append((char) c);
+            }
+        }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(nextChar(), 16);
+            if (digit < 0) throw syntaxError("Malformed \\u escape");
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Scans past string contents after the opening quote without decoding them
+     */
+    private void skipString() throws IOException {
+        while (true) {
+            int c = nextChar();
+            if (c == '"') return;
+            if (c == -1) throw syntaxError("Unterminated string");
+            if (c == '\\') nextChar();
+        }
+    }
+
+    private void readNumber(StringBuilder out) throws IOException {
+        out.setLength(0);
+        while (true) {
+            int c = nextChar();
+            if (isNumberChar(c)) {
+                out.append((char) c);
+            }
+            else {
+                if (c != -1) pushBack();
+                return;
+            }
+        }
+    }
+
+    private void skipNumber() throws IOException {
+        int c;
+        do {
+            c = nextChar();
+        } while (isNumberChar(c));
+        if (c != -1) pushBack();
+    }
+
+    private static boolean isNumberChar(int c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private void consumeLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (nextChar() != rest.charAt(i)) throw syntaxError("Malformed literal");
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = nextChar();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * @return next character, or -1 at end of input
+     */
+    private int nextChar() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+
+        char c = buffer[pos++];
+        if (capture != null) {
+            capture.append(c);
+        }
+        return c;
+    }
+
+    /**
+     * Un-reads the character just returned by nextChar (always still in the buffer)
+     */
+    private void pushBack() {
+        pos--;
+        if (capture != null) {
+            capture.setLength(capture.length() - 1);
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+}
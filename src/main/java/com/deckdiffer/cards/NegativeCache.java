@@ -0,0 +1,81 @@
+/**
+ * NegativeCache.java; Remembers card names that recently failed to resolve, so junk lines,
+ * typos and custom card names cost one Scryfall call per TTL period rather than one per comparison.
+ *
+ * Two kinds of failure are kept apart:
+ * - NOT_FOUND: Scryfall answered that no such card exists; remembered for a long time
+ * - TRANSIENT_ERROR: timeout, 5xx, rate limiting, ...; remembered only briefly so the card is retried soon
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class NegativeCache {
+
+    public enum Reason { NOT_FOUND, TRANSIENT_ERROR }
+
+    private static final class Entry {
+        final Reason reason;
+        final long expiresAt; // epoch millis
+
+        Entry(Reason reason, long expiresAt) {
+            this.reason = reason;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long notFoundTtlMillis;
+    private final long transientTtlMillis;
+
+    // Guarded by this; insertion-ordered so the oldest entries are dropped first when full
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * @param maxEntries - maximum number of remembered failures
+     * @param notFoundTtlMillis - how long a NOT_FOUND result is remembered
+     * @param transientTtlMillis - how long a TRANSIENT_ERROR result is remembered
+     */
+    public NegativeCache(int maxEntries, long notFoundTtlMillis, long transientTtlMillis) {
+        this.notFoundTtlMillis = notFoundTtlMillis;
+        this.transientTtlMillis = transientTtlMillis;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key - canonical cache key of the card name (see CardDataProvider.canonicalKey)
+     * @return why the name recently failed, or null if it should be looked up
+     */
+    public synchronized Reason lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.reason;
+    }
+
+    /**
+     * Records a failed lookup
+     *
+     * @param key - canonical cache key of the card name (see CardDataProvider.canonicalKey)
+     * @param reason - kind of failure, which selects the TTL
+     */
+    public synchronized void record(String key, Reason reason) {
+        long ttl = reason == Reason.NOT_FOUND ? notFoundTtlMillis : transientTtlMillis;
+        entries.remove(key); // re-insert at the young end
+        entries.put(key, new Entry(reason, System.currentTimeMillis() + ttl));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
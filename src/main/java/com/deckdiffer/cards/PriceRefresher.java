@@ -0,0 +1,202 @@
+/**
+ * PriceRefresher.java; Keeps the prices of frequently requested cards fresh in the background.
+ *
+ * Counts how often each cached card is looked up. On every cycle the hottest cards whose price is
+ * older than refreshAgeMillis are re-fetched through /cards/collection, in full 75-card batches
+ * (topped up with the next hottest cards), and swapped into the CardCache, so interactive lookups
+ * find them fresh instead of waiting on Scryfall.
+ *
+ * Refresh traffic is kept out of the way of interactive lookups: a batch is only sent while
+ * Scryfall is idle (see ScryfallClient.isIdle()) and while the refresher's own request budget allows it.
+ * Access counts are halved after every cycle, so the hot list follows recent demand.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.deckdiffer.cards.ScryfallCardDecoder.DecodedCard;
+
+public final class PriceRefresher {
+
+    private final CardCache cache;
+    private final int hotCards;
+    private final long refreshAgeMillis;
+    private final int maxTracked;
+
+    // Refresh requests allowed on top of the idle check, shared by all cycles
+    private final RateLimiter budget;
+
+    // Lowercase canonical card name -> decayed access count
+    private final Map<String, AtomicLong> accessCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong cardsRefreshed = new AtomicLong();
+    private final AtomicLong cyclesDeferred = new AtomicLong();
+
+    private ScheduledExecutorService executor; // guarded by this
+
+    /**
+     * @param cache - cache whose entries are refreshed
+     * @param hotCards - how many of the most requested cards are kept fresh
+     * @param refreshAgeMillis - price age at which a hot card is re-fetched
+     * @param maxTracked - maximum number of distinct cards whose accesses are counted
+     * @param requestsPerMinute - Scryfall requests the refresher may send per minute
+     */
+    public PriceRefresher(CardCache cache, int hotCards, long refreshAgeMillis, int maxTracked, double requestsPerMinute) {
+        this.cache = cache;
+        this.hotCards = hotCards;
+        this.refreshAgeMillis = refreshAgeMillis;
+        this.maxTracked = maxTracked;
+        this.budget = new RateLimiter(requestsPerMinute / 60.0, Math.max(1, (int) Math.ceil(hotCards / (double) ScryfallBatchFetcher.MAX_BATCH_SIZE)));
+    }
+
+    /**
+     * Counts one lookup of a card
+     *
+     * @param key - lowercase canonical card name
+     */
+    public void recordAccess(String key) {
+        AtomicLong count = accessCounts.get(key);
+        if (count == null) {
+            // Rough bound: stop tracking new cards rather than grow without limit until the next decay
+            if (accessCounts.size() >= maxTracked) {
+                return;
+            }
+            count = accessCounts.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Runs refresh cycles on a background daemon thread. Calling it again has no effect.
+     *
+     * @param intervalMillis - time between cycles
+     */
+    public synchronized void start(long intervalMillis) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scryfall-price-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                refreshOnce();
+            }
+            catch (RuntimeException e) {
+                System.err.println("Price refresh failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs one refresh cycle on the calling thread: re-fetches the hot cards that are due,
+     * as long as Scryfall stays idle and the budget allows, then decays the access counts.
+     */
+    public void refreshOnce() {
+        cycles.incrementAndGet();
+        try {
+            List<String> batchNames = selectForRefresh();
+
+            for (int i = 0; i < batchNames.size(); i += ScryfallBatchFetcher.MAX_BATCH_SIZE) {
+                // Interactive lookups come first; the rest waits for the next cycle
+                if (!ScryfallClient.isIdle() || !budget.tryAcquire()) {
+                    cyclesDeferred.incrementAndGet();
+                    break;
+                }
+
+                List<String> batch = batchNames.subList(i, Math.min(i + ScryfallBatchFetcher.MAX_BATCH_SIZE, batchNames.size()));
+                long requestedAt = System.currentTimeMillis();
+                BatchResolution resolution = ScryfallBatchFetcher.fetchBatchAsync(batch).join();
+                batchesSent.incrementAndGet();
+
+                for (Map.Entry<String, DecodedCard> found : resolution.found.entrySet()) {
+                    // Readers see either the old or the new CardData, never a mix
+                    if (cache.replace(found.getKey(), found.getValue().data, requestedAt)) {
+                        cardsRefreshed.incrementAndGet();
+                    }
+                }
+            }
+        }
+        finally {
+            decay();
+        }
+    }
+
+    /**
+     * @return one-line summary of the refresher's counters
+     */
+    public String stats() {
+        return String.format(
+            "tracked=%d cycles=%d deferred=%d batches=%d refreshed=%d",
+            accessCounts.size(), cycles.get(), cyclesDeferred.get(), batchesSent.get(), cardsRefreshed.get()
+        );
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * Picks the names to re-fetch this cycle: every hot cached card that is due, hottest first,
+     * then the next hottest cards that are not due yet to fill the last batch up to 75.
+     *
+     * @return card keys in the order they should be sent
+     */
+    private List<String> selectForRefresh() {
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+        for (Map.Entry<String, AtomicLong> entry : accessCounts.entrySet()) {
+            ranked.add(Map.entry(entry.getKey(), entry.getValue().get()));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        List<String> due = new ArrayList<>();
+        List<String> notDue = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        int considered = 0;
+        for (Map.Entry<String, Long> entry : ranked) {
+            if (considered >= hotCards) break;
+
+            // Only cards in the cache are refreshed; catalog cards and evicted cards are skipped
+            long fetchedAt = cache.fetchedAt(entry.getKey());
+            if (fetchedAt < 0) continue;
+
+            considered++;
+            if (now - fetchedAt >= refreshAgeMillis) {
+                due.add(entry.getKey());
+            }
+            else {
+                notDue.add(entry.getKey());
+            }
+        }
+
+        if (due.isEmpty()) {
+            return due;
+        }
+
+        // A batch costs one request whether it holds 1 or 75 cards, so don't send it half empty
+        int remainder = due.size() % ScryfallBatchFetcher.MAX_BATCH_SIZE;
+        if (remainder != 0) {
+            int fill = Math.min(ScryfallBatchFetcher.MAX_BATCH_SIZE - remainder, notDue.size());
+            due.addAll(notDue.subList(0, fill));
+        }
+        return due;
+    }
+
+    // Halves every access count and forgets cards that are no longer requested
+    private void decay() {
+        accessCounts.entrySet().removeIf(entry -> entry.getValue().updateAndGet(count -> count / 2) == 0);
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * RateLimiter.java; Token-bucket rate limiter shared by every thread that calls one API.
+ *
+ * Tokens refill continuously at permitsPerSecond up to burstSize. acquireAsync() reserves one token
+ * and completes once it is available, so callers on any number of threads together never exceed
+ * the configured average rate; tryAcquire() takes one only if it is available right now.
+ */
+
+package com.deckdiffer.cards;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public final class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double burstSize;
+
+    // Guarded by this; may go negative while callers are waiting for reserved tokens
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond - average number of permits handed out per second
+     * @param burstSize - maximum number of permits that can be taken back to back after idling
+     */
+    public RateLimiter(double permitsPerSecond, int burstSize) {
+        if (permitsPerSecond <= 0 || burstSize <= 0) {
+            throw new IllegalArgumentException("Rate and burst size must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.burstSize = burstSize;
+        this.tokens = burstSize;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes one permit without blocking a thread while waiting for it
+     *
+     * @return future that completes once the permit may be used
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Takes one permit only if it is available right now
+     *
+     * @return true if a permit was taken
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the bucket is full, i.e. nobody has taken a permit for a while
+     */
+    public synchronized boolean isIdle() {
+        refill();
+        return tokens >= burstSize;
+    }
+
+    /**
+     * Holds back every caller for at least the given time, e.g. when the server answers
+     * 429 Too Many Requests with a Retry-After header
+     *
+     * @param nanos - how long no permit should be handed out
+     */
+    public synchronized void pauseFor(long nanos) {
+        refill();
+        tokens = Math.min(tokens, -nanos * permitsPerNano);
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * Reserves the next permit, which may lie in the future
+     *
+     * @return nanoseconds the caller must wait before using its permit
+     */
+    private synchronized long reserve() {
+        refill();
+        tokens -= 1.0;
+        if (tokens >= 0.0) {
+            return 0L;
+        }
+        return (long) Math.ceil(-tokens / permitsPerNano);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burstSize, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
@@ -4,20 +4,19 @@
  * Utility class for efficiently fetching raw MTG card data from the Scryfall API
  * Uses the bulk POST '/cards/collection' endpoint to request up to 75 unique cards per network call
  * This is far more efficient compared to individual API requests per card
+ *
+ * Each batch is sent through the shared asynchronous ScryfallClient, which rate-limits, retries and
+ * circuit-breaks every Scryfall call; CardFetchScheduler decides which names go into which batch.
  */
 
 package com.deckdiffer.cards;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -25,82 +24,127 @@ public class ScryfallBatchFetcher {
 
     private static final String SCRYFALL_COLLECTION_URL = 
         "https://api.scryfall.com/cards/collection";
-    private static final int MAX_BATCH_SIZE = 75;
+    static final int MAX_BATCH_SIZE = 75;
 
     /**
-     * Fetches raw Scryfall JSON objects in batches
-     * 
-     * @param cardNames - Set of unique card names to fetch
-     * @return Map of card names (strings) to its raw Scryfall JSON (JSONObject).
+     * Sends a single /cards/collection request without blocking the calling thread
+     *
+     * @param batchNames - at most MAX_BATCH_SIZE card names
+     * @return future of the batch's found / not-found / alias outcome; never completes exceptionally
      */
-    
-    // Check API Format Here: https://scryfall.com/docs/api/cards/collection
-    public static Map<String, JSONObject> fetchBatchJson(Set<String> cardNames) {
-        
-        Map<String, JSONObject> fetchedJson = new HashMap<>();
-        List<String> cardList = new ArrayList<>(cardNames);
-        
-        // Loop through the card names in batches of MAX_BATCH_SIZE
-        for (int i = 0; i < cardList.size(); i += MAX_BATCH_SIZE) { 
-
-            // Extract cur batch of card names up to 75 from the full list
-            List<String> batchNames = cardList.subList(i, Math.min(i + MAX_BATCH_SIZE, cardList.size()));
-            
-            // Build JSON request body: {"identifiers": [{"name": "Card 1"}, ...]}
-            JSONObject requestBody = new JSONObject();
-            JSONArray identifiers = new JSONArray(); // holds the list of cards
-            for (String name : batchNames) {
-                identifiers.put(new JSONObject().put("name", name)); // { "name": "Card Name" } for each card
+    public static CompletableFuture<BatchResolution> fetchBatchAsync(List<String> batchNames) {
+        return fetchBatchAsync(batchNames, Deadline.none());
+    }
+
+    /**
+     * Sends a single /cards/collection request that is abandoned once the deadline passes
+     *
+     * @param batchNames - at most MAX_BATCH_SIZE card names
+     * @param deadline - latest deadline of the requests waiting on this batch
+     * @return future of the batch's outcome; names are reported as failed if the deadline cut it short
+     */
+    public static CompletableFuture<BatchResolution> fetchBatchAsync(List<String> batchNames, Deadline deadline) {
+        if (batchNames.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " cards per batch, got " + batchNames.size());
+        }
+        List<String> names = List.copyOf(batchNames);
+
+        // Build JSON request body: {"identifiers": [{"name": "Card 1"}, ...]}
+        JSONObject requestBody = new JSONObject();
+        JSONArray identifiers = new JSONArray(); // holds the list of cards
+        for (String name : names) {
+            identifiers.put(new JSONObject().put("name", name)); // { "name": "Card Name" } for each card
+        }
+        requestBody.put("identifiers", identifiers);
+
+        return ScryfallClient.postJsonAsync(SCRYFALL_COLLECTION_URL, requestBody.toString(), deadline)
+            .thenApply(response -> readBatchResponse(names, response))
+            .exceptionally(e -> {
+                System.err.println("Error during Scryfall batch fetch: " + e.getMessage());
+                return failedBatch(names);
+            });
+    }
+
+    /**
+     * Reads one /cards/collection response.
+     * Failures are logged and reported as failed names in the result.
+     *
+     * @param batchNames - names sent in the request
+     * @param response - Scryfall's response
+     * @return resolution of every name in the batch
+     */
+    private static BatchResolution readBatchResponse(List<String> batchNames, ScryfallClient.Response response) {
+        try (response) {
+            if (response.status != 200) {
+                System.err.println("Error during Scryfall batch fetch: HTTP " + response.status);
+                return failedBatch(batchNames);
             }
-            requestBody.put("identifiers", identifiers);
-            
-            try {
-                // Establish a connection
-                URL url = new URL(SCRYFALL_COLLECTION_URL);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-                conn.setConnectTimeout(5000);
-                conn.setReadTimeout(15000);
-                
-                // Send Request Body
-                try (OutputStream os = conn.getOutputStream()) {
-                    // convert complete JSON request body string to an array of bytes using standard character encoding
-                    byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length); // write byte array to the connection
-                }
-                
-                // Read Response
-                String responseText;
-                try (Scanner scanner = new Scanner(conn.getInputStream(), StandardCharsets.UTF_8)) {
-                    responseText = scanner.useDelimiter("\\A").next(); // read IS into a single string
-                }
 
-                // Parse Response JSON
-                JSONObject responseJson = new JSONObject(responseText);
-                JSONArray dataArray = responseJson.getJSONArray("data");
-
-                for (int j = 0; j < dataArray.length(); j++) {
-                    JSONObject cardJson = dataArray.getJSONObject(j);
-                    
-                    String cardName = cardJson.optString("name"); 
-                    
-                    if (cardName != null && !cardName.isEmpty()) {
-                        fetchedJson.put(cardName, cardJson);
+            // Decode the needed fields straight off the response stream
+            return matchResponse(batchNames, ScryfallCardDecoder.decodeCollection(response.body()));
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println("Error during Scryfall batch fetch: " + e.getMessage());
+            return failedBatch(batchNames);
+        }
+    }
+
+    private static BatchResolution failedBatch(List<String> batchNames) {
+        BatchResolution failed = BatchResolution.empty();
+        failed.failed.addAll(batchNames);
+        return failed;
+    }
+
+    /**
+     * Matches a /cards/collection response back to the names that were requested.
+     *
+     * A returned card matches a requested name by its canonical name or any face name,
+     * compared case-, accent- and whitespace-insensitively (see CardNames.normalize).
+     * Names listed in not_found, or that no returned card matched, are reported as not found.
+     * Requested spellings that normalize alike ("Æther Vial", "aether vial") all get the same outcome.
+     *
+     * @param batchNames - names sent in the request
+     * @param page - decoded response body
+     * @return resolution of every name in the batch
+     */
+    static BatchResolution matchResponse(List<String> batchNames, ScryfallCardDecoder.CollectionPage page) {
+        BatchResolution resolution = BatchResolution.empty();
+
+        Map<String, List<String>> requestedByKey = new HashMap<>();
+        for (String name : batchNames) {
+            requestedByKey.computeIfAbsent(CardNames.normalize(name), key -> new ArrayList<>(1)).add(name);
+        }
+
+        for (ScryfallCardDecoder.DecodedCard card : page.cards) {
+            List<String> spellings = new ArrayList<>();
+            spellings.add(card.name);
+            spellings.addAll(card.faceNames);
+
+            for (String spelling : spellings) {
+                List<String> requested = requestedByKey.remove(CardNames.normalize(spelling));
+                if (requested == null) continue;
+
+                for (String name : requested) {
+                    resolution.found.put(name, card);
+                    if (!name.equals(card.name)) {
+                        resolution.aliases.put(name, card.name);
                     }
                 }
-                
-                // Small delay if fetching multiple batches to prevent rate limiting
-                if (cardList.size() > MAX_BATCH_SIZE) {
-                     Thread.sleep(50); 
-                }
             }
-            catch (Exception e) {
-                System.err.println("Error during Scryfall batch fetch: " + e.getMessage());
+        }
+
+        // not_found holds the identifiers Scryfall could not match, e.g. [{"name": "Lightnig Bolt"}]
+        for (String missing : page.notFound) {
+            List<String> requested = requestedByKey.remove(CardNames.normalize(missing));
+            if (requested != null) {
+                resolution.notFound.addAll(requested);
             }
         }
-        
-        return fetchedJson;
+
+        // Anything left was neither returned nor listed; treat it as not found too
+        for (List<String> requested : requestedByKey.values()) {
+            resolution.notFound.addAll(requested);
+        }
+        return resolution;
     }
-}
\ No newline at end of file
+}
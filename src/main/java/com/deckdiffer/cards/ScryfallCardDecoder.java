@@ -0,0 +1,457 @@
+/**
+ * ScryfallCardDecoder.java; Decodes Scryfall card objects straight from a response or bulk-file stream.
+ *
+ * Only the fields CardData needs are decoded: name, type_line, card_faces (first face's type line and
+ * image, every face's name for aliasing), color_identity, prices.usd, image_uris.normal, scryfall_uri,
+ * cmc and mana_cost, plus lang for bulk filtering. Every other subtree (legalities, all_parts,
+ * oracle text, other prices, ...) is skipped by JsonPullReader without being materialized.
+ *
+ * Used for /cards/collection and /cards/named responses and for bulk-file ingest, so all three paths
+ * build CardData the same way.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public final class ScryfallCardDecoder {
+
+    // Whether CardData keeps a compressed copy of the raw Scryfall JSON (off: extracted fields only)
+    private static final boolean RETAIN_RAW_JSON =
+        Boolean.parseBoolean(System.getProperty("deckdiffer.cards.retainRawJson", "false"));
+
+    // Card Type Definitions
+    private static final Set<String> CARD_TYPES = Set.of(
+        "Artifact", "Creature", "Enchantment", "Instant",
+        "Sorcery", "Land", "Planeswalker", "Battle", "Tribal"
+    );
+
+    // Property names, matched without allocating; indices are the constants below
+    private static final String[] CARD_FIELDS = {
+        "name", "type_line", "card_faces", "color_identity", "prices",
+        "image_uris", "scryfall_uri", "cmc", "mana_cost", "lang"
+    };
+    private static final int NAME = 0, TYPE_LINE = 1, CARD_FACES = 2, COLOR_IDENTITY = 3, PRICES = 4,
+        IMAGE_URIS = 5, SCRYFALL_URI = 6, CMC = 7, MANA_COST = 8, LANG = 9;
+
+    private static final String[] FACE_FIELDS = { "name", "type_line", "image_uris" };
+    private static final String[] PRICE_FIELDS = { "usd" };
+    private static final String[] IMAGE_FIELDS = { "normal" };
+    private static final String[] COLLECTION_FIELDS = { "data", "not_found" };
+    private static final String[] IDENTIFIER_FIELDS = { "name" };
+
+    private ScryfallCardDecoder() {}
+
+    /**
+     * A decoded card: its CardData plus the names it can be requested under
+     */
+    public static final class DecodedCard {
+        public final String name; // Canonical Scryfall name
+        public final List<String> faceNames; // Names of each face, empty for single-faced cards
+        public final String lang; // Printing language, "en" if absent
+        public final CardData data;
+
+        DecodedCard(String name, List<String> faceNames, String lang, CardData data) {
+            this.name = name;
+            this.faceNames = List.copyOf(faceNames);
+            this.lang = lang;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Decoded /cards/collection response
+     */
+    public static final class CollectionPage {
+        public final List<DecodedCard> cards;
+        public final List<String> notFound; // Names from the not_found identifiers
+
+        CollectionPage(List<DecodedCard> cards, List<String> notFound) {
+            this.cards = cards;
+            this.notFound = notFound;
+        }
+    }
+
+    /**
+     * Decodes a single card object, e.g. a /cards/named response body
+     *
+     * @param body - UTF-8 JSON stream; not closed
+     * @return decoded card, or null if the object has no name
+     * @throws IOException if the stream cannot be read or is not a card object
+     */
+    public static DecodedCard decodeCard(InputStream body) throws IOException {
+        JsonPullReader reader = new JsonPullReader(utf8(body));
+        return readCard(reader);
+    }
+
+    /**
+     * Decodes a /cards/collection response: {"data": [card, ...], "not_found": [{"name": ...}, ...]}
+     *
+     * @param body - UTF-8 JSON stream; not closed
+     * @return decoded cards and not-found names
+     * @throws IOException if the stream cannot be read or is malformed
+     */
+    public static CollectionPage decodeCollection(InputStream body) throws IOException {
+        JsonPullReader reader = new JsonPullReader(utf8(body));
+        List<DecodedCard> cards = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(COLLECTION_FIELDS)) {
+                case 0:
+                    readCardArray(reader, cards::add);
+                    break;
+                case 1:
+                    readIdentifierNames(reader, notFound);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new CollectionPage(cards, notFound);
+    }
+
+    /**
+     * Decodes a bulk-data file (a top-level JSON array of cards) one card at a time
+     *
+     * @param in - character stream of the file; not closed
+     * @param consumer - receives each decoded card
+     * @throws IOException if the stream cannot be read or is not an array of cards
+     */
+    public static void decodeBulk(Reader in, Consumer<DecodedCard> consumer) throws IOException {
+        JsonPullReader reader = new JsonPullReader(in);
+        readCardArray(reader, consumer);
+        if (reader.peek() != JsonPullReader.Token.END_DOCUMENT) {
+            throw new IOException("Malformed JSON: trailing content after card array");
+        }
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private static Reader utf8(InputStream body) {
+        return new InputStreamReader(body, StandardCharsets.UTF_8);
+    }
+
+    private static void readCardArray(JsonPullReader reader, Consumer<DecodedCard> consumer) throws IOException {
+        if (reader.peek() != JsonPullReader.Token.BEGIN_ARRAY) {
+            throw new IOException("Malformed JSON: expected an array of cards");
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonPullReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            DecodedCard card = readCard(reader);
+            if (card != null) {
+                consumer.accept(card);
+            }
+        }
+        reader.endArray();
+    }
+
+    private static void readIdentifierNames(JsonPullReader reader, List<String> names) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonPullReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.selectName(IDENTIFIER_FIELDS) == 0) {
+                    String name = reader.nextString();
+                    if (name != null) names.add(name);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Decodes one card object, leaving the reader after its closing brace
+     *
+     * @return decoded card, or null if the object has no name
+     */
+    private static DecodedCard readCard(JsonPullReader reader) throws IOException {
+        String name = null;
+        String typeLine = "";
+        String lang = "en";
+        List<String> colors = new ArrayList<>();
+        double price = 0.0;
+        String imageUrl = null;
+        String scryfallUrl = null;
+        double cmc = 0.0;
+        String manaCost = "";
+        Face faces = null;
+
+        if (RETAIN_RAW_JSON) reader.startCapture();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(CARD_FIELDS)) {
+                case NAME:
+                    name = reader.nextString();
+                    break;
+                case TYPE_LINE:
+                    typeLine = orEmpty(reader.nextString());
+                    break;
+                case CARD_FACES:
+                    faces = readFaces(reader);
+                    break;
+                case COLOR_IDENTITY:
+                    readStrings(reader, colors);
+                    break;
+                case PRICES:
+                    price = readSingleField(reader, PRICE_FIELDS, 0.0);
+                    break;
+                case IMAGE_URIS:
+                    imageUrl = readImageUrl(reader);
+                    break;
+                case SCRYFALL_URI:
+                    scryfallUrl = reader.nextString();
+                    break;
+                case CMC:
+                    cmc = reader.nextDouble(0.0);
+                    break;
+                case MANA_COST:
+                    manaCost = orEmpty(reader.nextString());
+                    break;
+                case LANG:
+                    lang = orEmpty(reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        String raw = RETAIN_RAW_JSON ? reader.endCapture() : null;
+
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+
+        // MDFCs group by their front face; single-faced cards only carry a top-level type line
+        if (faces != null && faces.hasFirst) {
+            typeLine = faces.firstTypeLine;
+            if (imageUrl == null) imageUrl = faces.firstImageUrl;
+        }
+
+        List<String> types = parseTypes(typeLine);
+        String primaryType = CardClassifier.fetchPrimaryType(types);
+        String colorCategory = CardClassifier.assignColorCategoryAsString(colors);
+        byte[] compressedJson = raw != null ? CardData.compressJson(raw) : null;
+
+        CardData data = new CardData(name, types, primaryType, colors, colorCategory, price, imageUrl, scryfallUrl, cmc, parsePips(manaCost), compressedJson);
+        return new DecodedCard(name, faces != null ? faces.names : List.of(), lang, data);
+    }
+
+    // Fields collected from card_faces
+    private static final class Face {
+        final List<String> names = new ArrayList<>();
+        boolean hasFirst;
+        String firstTypeLine = "";
+        String firstImageUrl;
+    }
+
+    private static Face readFaces(JsonPullReader reader) throws IOException {
+        Face faces = new Face();
+        if (reader.peek() != JsonPullReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return faces;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonPullReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            boolean first = !faces.hasFirst;
+            faces.hasFirst = true;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int field = reader.selectName(FACE_FIELDS);
+                if (field == 0) {
+                    String faceName = reader.nextString();
+                    if (faceName != null && !faceName.isEmpty()) faces.names.add(faceName);
+                }
+                else if (field == 1 && first) {
+                    faces.firstTypeLine = orEmpty(reader.nextString());
+                }
+                else if (field == 2 && first) {
+                    faces.firstImageUrl = readImageUrl(reader);
+                }
+                else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return faces;
+    }
+
+    private static String readImageUrl(JsonPullReader reader) throws IOException {
+        if (reader.peek() != JsonPullReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String url = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.selectName(IMAGE_FIELDS) == 0) {
+                url = reader.nextString();
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return url;
+    }
+
+    /**
+     * Reads one numeric field (e.g. prices.usd, sent as a string) out of an object, skipping the rest
+     */
+    private static double readSingleField(JsonPullReader reader, String[] field, double fallback) throws IOException {
+        if (reader.peek() != JsonPullReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return fallback;
+        }
+
+        double value = fallback;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.selectName(field) == 0) {
+                value = reader.nextDouble(fallback);
+            }
+            else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    private static void readStrings(JsonPullReader reader, List<String> out) throws IOException {
+        if (reader.peek() != JsonPullReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String value = reader.nextString();
+            if (value != null) out.add(value);
+        }
+        reader.endArray();
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Extracts the grouping types from a type line, e.g. "Legendary Artifact Creature — Golem"
+     *
+     * @param typeLine - type line of the card (front face for MDFCs)
+     * @return List of types from a card typeline
+     */
+    private static List<String> parseTypes(String typeLine) {
+        List<String> types = new ArrayList<>();
+
+        // Relevant grouping types are found left of the -, which all cards have
+        String[] parts = typeLine.split("—");
+        String leftSide = parts[0].trim();
+
+        // Left side of typeline before "-" contains all candidate types
+        for (String word : leftSide.split("\\s+")) {
+            if (CARD_TYPES.contains(word)) {
+                types.add(word);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Extracts cards colored mana cost as a Map<String, Integer>
+     *
+     * @param String manaCost
+     * @return Map<String, Integer> mapping Mana color (WUBRG) to amount
+     */
+    private static Map<String, Integer> parsePips(String manaCost){
+        Map<String, Integer> pipMap = new HashMap<>();
+        String[] wubrg = {"W", "U", "B", "R", "G"};
+
+        // init
+        for (String color: wubrg){
+            pipMap.put(color, 0);
+        }
+
+        pipMap.put("C", 0); // represents colorless
+
+        if (manaCost == null || manaCost.isEmpty()){
+            return pipMap;
+        }
+
+        for (String chunk : manaCost.split("\\}")){
+            int open = chunk.indexOf('{');
+            if (open < 0){
+                continue;
+            }
+
+            String symbol = chunk.substring(open + 1).trim();
+
+            // Numerate the generic mana first
+            try{
+                int genericCost = Integer.parseInt(symbol);
+                pipMap.put("C", pipMap.get("C") + genericCost);
+                continue;
+            }
+            catch (Exception e){}
+
+            // Numerate WUBRG
+            if (pipMap.containsKey(symbol)){
+                pipMap.put(symbol, pipMap.get(symbol) + 1);
+            }
+
+            // Hybrid Mana, ex: "W/G" for pay with white or green
+            // we still count it as if it were 1.
+            // "W/G" contributes 1 white pip AND 1 green pip
+            if (symbol.contains("/")){
+                String[] manaParts = symbol.split("/");
+                for (String part: manaParts){
+                    if (pipMap.containsKey(part)){
+                        pipMap.put(part, pipMap.get(part) + 1);
+                    }
+                }
+            }
+        }
+        return pipMap;
+    }
+}
@@ -0,0 +1,445 @@
+/**
+ * ScryfallClient.java; Shared HTTP transport for every call to api.scryfall.com.
+ *
+ * Wraps one process-wide java.net.http.HttpClient, so connections are pooled and kept alive
+ * (HTTP/2 where the server supports it) instead of opening a fresh connection per call.
+ * Every request asks for a gzip-compressed response and carries connect and read deadlines,
+ * so a hung socket fails the call instead of pinning a Jetty worker.
+ *
+ * All calls are asynchronous and return CompletableFutures; the fetchers chain parsing onto them
+ * rather than blocking a thread for the duration of the round trip.
+ *
+ * Every attempt takes a permit from the shared Scryfall rate limiter. Throttling (429), server errors
+ * (5xx) and network failures are retried with jittered exponential backoff, waiting for Retry-After
+ * instead when the server sends one. Repeated failures open a circuit breaker, after which calls fail
+ * fast with ScryfallUnavailableException until a trial call succeeds; callers check isAvailable()
+ * to serve cached data instead of waiting.
+ *
+ * A caller's Deadline caps each attempt's timeout and stops further retries once it passes;
+ * calls abandoned because of a deadline do not count against the circuit breaker. The request timeout
+ * only covers the wait for response headers, so the body is bounded separately: a body not read
+ * within the deadline (or the body timeout, for calls without one) is aborted and its reader fails.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+public final class ScryfallClient {
+
+    // Scryfall requires an identifying User-Agent and an Accept header: https://scryfall.com/docs/api
+    private static final String USER_AGENT = "DecklistDiffer/1.0";
+
+    private static final Duration CONNECT_TIMEOUT =
+        Duration.ofMillis(Long.getLong("deckdiffer.scryfall.connectTimeoutMs", 5_000L));
+    private static final Duration REQUEST_TIMEOUT =
+        Duration.ofMillis(Long.getLong("deckdiffer.scryfall.requestTimeoutMs", 15_000L));
+    private static final long BODY_TIMEOUT_MS = Long.getLong("deckdiffer.scryfall.bodyTimeoutMs", 30_000L);
+
+    // Scryfall asks for 50-100 ms between requests, i.e. about 10 per second: https://scryfall.com/docs/api
+    static final RateLimiter RATE_LIMITER = new RateLimiter(
+        Double.parseDouble(System.getProperty("deckdiffer.scryfall.requestsPerSecond", "10")),
+        Integer.getInteger("deckdiffer.scryfall.burst", 2)
+    );
+
+    private static final CircuitBreaker BREAKER = new CircuitBreaker(
+        Integer.getInteger("deckdiffer.scryfall.breakerFailures", 5),
+        Long.getLong("deckdiffer.scryfall.breakerOpenMs", 30_000L)
+    );
+
+    private static final int MAX_RETRIES = Integer.getInteger("deckdiffer.scryfall.maxRetries", 3);
+    private static final long RETRY_BASE_MS = Long.getLong("deckdiffer.scryfall.retryBaseMs", 250L);
+    private static final long RETRY_MAX_MS = Long.getLong("deckdiffer.scryfall.retryMaxMs", 4_000L);
+
+    // A Retry-After longer than this is not waited out; the breaker is opened for that long instead
+    private static final long MAX_RETRY_AFTER_MS = Long.getLong("deckdiffer.scryfall.maxRetryAfterMs", 10_000L);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(CONNECT_TIMEOUT)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    // Aborts response bodies that are not read in time; daemon so it never blocks shutdown
+    private static final ScheduledThreadPoolExecutor BODY_TIMER = newBodyTimer();
+
+    private ScryfallClient() {}
+
+    /**
+     * Response whose body is already decompressed. Must be closed once the body has been read.
+     */
+    public static final class Response implements Closeable {
+        public final int status;
+        private final HttpHeaders headers;
+        private final InputStream body;
+
+        private Response(int status, HttpHeaders headers, InputStream body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * @param name - header name, case-insensitive
+         * @return first value of the header, if present
+         */
+        public Optional<String> header(String name) {
+            return headers.firstValue(name);
+        }
+
+        /**
+         * @return the (decompressed) response body as a stream
+         */
+        public InputStream body() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    /**
+     * @return false while the circuit breaker is refusing calls, i.e. Scryfall is considered down
+     */
+    public static boolean isAvailable() {
+        return !BREAKER.isOpen();
+    }
+
+    /**
+     * @return true if Scryfall is healthy and no caller has needed the rate limiter recently,
+     *         so background work can be sent without delaying interactive lookups
+     */
+    static boolean isIdle() {
+        return BREAKER.state() == CircuitBreaker.State.CLOSED && RATE_LIMITER.isIdle();
+    }
+
+    /**
+     * @return circuit breaker state, for monitoring
+     */
+    public static CircuitBreaker.State breakerState() {
+        return BREAKER.state();
+    }
+
+    /**
+     * Sends a GET request
+     *
+     * @param url - absolute Scryfall URL, already encoded
+     * @return future of the response; fails with ScryfallUnavailableException if the breaker is open
+     */
+    public static CompletableFuture<Response> getAsync(String url) {
+        return getAsync(url, Deadline.none());
+    }
+
+    /**
+     * Sends a GET request that gives up when the deadline passes
+     *
+     * @param url - absolute Scryfall URL, already encoded
+     * @param deadline - caller's deadline
+     * @return future of the response; fails with ScryfallUnavailableException if the breaker is open,
+     *         or with a TimeoutException / HttpTimeoutException once the deadline passes
+     */
+    public static CompletableFuture<Response> getAsync(String url, Deadline deadline) {
+        HttpRequest request = newRequest(url).GET().build();
+        return sendWithRetry(request, 0, deadline);
+    }
+
+    /**
+     * Sends a POST request with a JSON body
+     *
+     * @param url - absolute Scryfall URL
+     * @param json - request body
+     * @return future of the response; fails with ScryfallUnavailableException if the breaker is open
+     */
+    public static CompletableFuture<Response> postJsonAsync(String url, String json) {
+        return postJsonAsync(url, json, Deadline.none());
+    }
+
+    /**
+     * Sends a POST request with a JSON body that gives up when the deadline passes
+     *
+     * @param url - absolute Scryfall URL
+     * @param json - request body
+     * @param deadline - caller's deadline
+     * @return future of the response; fails with ScryfallUnavailableException if the breaker is open,
+     *         or with a TimeoutException / HttpTimeoutException once the deadline passes
+     */
+    public static CompletableFuture<Response> postJsonAsync(String url, String json, Deadline deadline) {
+        HttpRequest request = newRequest(url)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+            .build();
+        return sendWithRetry(request, 0, deadline);
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private static HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(REQUEST_TIMEOUT)
+            .header("User-Agent", USER_AGENT)
+            .header("Accept", "application/json")
+            .header("Accept-Encoding", "gzip");
+    }
+
+    /**
+     * Sends one attempt and, if it failed in a retryable way, schedules the next one.
+     * The final response is returned even if its status is an error, so callers can report it.
+     *
+     * @param request - request to send (immutable, so it can be resent as is)
+     * @param attempt - number of attempts already made
+     * @param deadline - caller's deadline
+     * @return future of the final response
+     */
+    private static CompletableFuture<Response> sendWithRetry(HttpRequest request, int attempt, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new TimeoutException("Request deadline passed"));
+        }
+        if (!BREAKER.allowRequest()) {
+            return CompletableFuture.failedFuture(new ScryfallUnavailableException("Scryfall circuit breaker is open"));
+        }
+
+        return RATE_LIMITER.acquireAsync()
+            .thenCompose(ignored -> deadline.isExpired()
+                ? CompletableFuture.<Response>failedFuture(new TimeoutException("Request deadline passed"))
+                : send(withDeadline(request, deadline), deadline))
+            .handle((response, error) -> {
+                if (error == null && !isRetryable(response.status)) {
+                    BREAKER.recordSuccess();
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                // Cut short by the caller's deadline (before sending or after); says nothing about
+                // Scryfall's health, but must not keep holding the half-open trial slot
+                if (deadline.isExpired()) {
+                    BREAKER.releaseTrial();
+                    return finalOutcome(response, error);
+                }
+                BREAKER.recordFailure();
+
+                long retryAfterMs = error == null ? retryAfterMillis(response) : -1L;
+                if (retryAfterMs > MAX_RETRY_AFTER_MS) {
+                    // Asked to stay away longer than we are willing to wait; stop calling until then
+                    BREAKER.openFor(retryAfterMs);
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                long delayMs = retryAfterMs >= 0 ? retryAfterMs : backoffMillis(attempt);
+                if (attempt >= MAX_RETRIES || delayMs >= deadline.remainingMillis()) {
+                    return finalOutcome(response, error);
+                }
+
+                if (response != null) {
+                    closeQuietly(response.body);
+                }
+                if (retryAfterMs >= 0) {
+                    // Throttled: hold back every caller, not just this retry; the retry waits on the limiter
+                    RATE_LIMITER.pauseFor(TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+                    return sendWithRetry(request, attempt + 1, deadline);
+                }
+
+                return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> sendWithRetry(request, attempt + 1, deadline));
+            })
+            .thenCompose(next -> next);
+    }
+
+    private static CompletableFuture<Response> finalOutcome(Response response, Throwable error) {
+        return error == null
+            ? CompletableFuture.completedFuture(response)
+            : CompletableFuture.failedFuture(error);
+    }
+
+    /**
+     * @return the request with its timeout shortened to what is left of the deadline, if that is sooner
+     */
+    private static HttpRequest withDeadline(HttpRequest request, Deadline deadline) {
+        long remaining = deadline.remainingMillis();
+        if (remaining >= REQUEST_TIMEOUT.toMillis()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+            .timeout(Duration.ofMillis(Math.max(1L, remaining)))
+            .build();
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Full-jitter exponential backoff: a random delay up to base * 2^attempt, capped
+     *
+     * @param attempt - number of attempts already made
+     * @return delay before the next attempt
+     */
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Reads Retry-After, which is either delay-seconds or an HTTP date
+     *
+     * @param response - a throttled or failed response
+     * @return requested delay in milliseconds, or -1 if the header is absent or unreadable
+     */
+    private static long retryAfterMillis(Response response) {
+        Optional<String> header = response.header("Retry-After");
+        if (header.isEmpty()) {
+            return -1L;
+        }
+
+        String value = header.get().trim();
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        }
+        catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0L, at.toInstant().toEpochMilli() - System.currentTimeMillis());
+            }
+            catch (DateTimeParseException notDate) {
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * Sends one attempt. The body stream is handed over once the headers arrive, and is aborted
+     * if it has not been read and closed before the deadline (or the body timeout) passes.
+     *
+     * @param request - request to send, its timeout already capped by the deadline
+     * @param deadline - caller's deadline
+     * @return future of the response
+     */
+    private static CompletableFuture<Response> send(HttpRequest request, Deadline deadline) {
+        return CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+            .thenApply(response -> {
+                // Wrapped before gunzipping, since GZIPInputStream already reads the gzip header
+                InputStream body = new TimedBody(response.body(), Math.min(deadline.remainingMillis(), BODY_TIMEOUT_MS));
+                boolean gzipped = response.headers()
+                    .firstValue("Content-Encoding")
+                    .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+
+                if (gzipped) {
+                    try {
+                        body = new GZIPInputStream(body, 1 << 16);
+                    }
+                    catch (IOException e) {
+                        closeQuietly(body);
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return new Response(response.statusCode(), response.headers(), body);
+            });
+    }
+
+    private static ScheduledThreadPoolExecutor newBodyTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "scryfall-body-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Almost every body is closed long before its timeout; drop those timers right away
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Response body that is closed underneath its reader once its time is up. Closing the
+     * HttpClient's stream cancels the exchange and wakes a blocked read, which then fails
+     * with an HttpTimeoutException instead of waiting on a stalled transfer.
+     */
+    static final class TimedBody extends FilterInputStream {
+        private final ScheduledFuture<?> abort;
+        private volatile boolean expired;
+
+        /**
+         * @param body - stream to guard
+         * @param timeoutMs - time allowed to read and close the stream
+         */
+        TimedBody(InputStream body, long timeoutMs) {
+            super(body);
+            this.abort = BODY_TIMER.schedule(this::expire, Math.max(1L, timeoutMs), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return checked(super.read());
+            }
+            catch (IOException e) {
+                throw expired ? timedOut() : e;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return checked(super.read(buffer, offset, length));
+            }
+            catch (IOException e) {
+                throw expired ? timedOut() : e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            abort.cancel(false);
+            super.close();
+        }
+
+        private void expire() {
+            expired = true;
+            closeQuietly(in);
+        }
+
+        // An aborted stream may report a clean end of input; that must not pass for a complete body
+        private int checked(int result) throws IOException {
+            if (result < 0 && expired) {
+                throw timedOut();
+            }
+            return result;
+        }
+
+        private static IOException timedOut() {
+            return new HttpTimeoutException("Response body was not read in time");
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        }
+        catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * ScryfallUnavailableException.java; Scryfall could not be asked at all, or kept failing after retries.
+ *
+ * Distinguishes "we don't know" from "Scryfall says the card does not exist", so callers do not turn
+ * an outage into more lookups.
+ */
+
+package com.deckdiffer.cards;
+
+import java.io.IOException;
+
+public class ScryfallUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ScryfallUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -5,17 +5,20 @@
  * - Store generated deck-difference text outputs
  * - Defines retrieval helpers used by DeckListDifferServer download routes
  * - Maintain an in-memory map of filename → file contents
+ * - Files saved as a Supplier are built when downloaded, so they can reflect data that arrived
+ *   after the comparison was rendered
  */
 
 package com.deckdiffer.download;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class DownloadService {
     // Stores ALL downloadable text files generated during comparison
-    // fileName -> content
-    private static final Map<String, String> generatedFiles = new ConcurrentHashMap<>();
+    // fileName -> content, built on each read
+    private static final Map<String, Supplier<String>> generatedFiles = new ConcurrentHashMap<>();
 
     private DownloadService() {}
 
@@ -26,8 +29,18 @@ public class DownloadService {
      * @param content - full text contents of the file as string
      */
     public static void saveFile(String fileName, String content) {
-        if (fileName == null || fileName.isEmpty()) return;
-        if (content == null) content = "";
+        String text = content == null ? "" : content;
+        saveFile(fileName, () -> text);
+    }
+
+    /**
+     * Saves or overwrites a text file entry whose contents are built each time it is downloaded.
+     *
+     * @param fileName - name of the file including ".txt" as string
+     * @param content - builds the full text contents of the file
+     */
+    public static void saveFile(String fileName, Supplier<String> content) {
+        if (fileName == null || fileName.isEmpty() || content == null) return;
         generatedFiles.put(fileName, content);
     }
 
@@ -38,7 +51,11 @@ public class DownloadService {
      * @return full file text or null if missing as string
      */
     public static String getFile(String fileName) {
-        return generatedFiles.get(fileName);
+        Supplier<String> content = generatedFiles.get(fileName);
+        if (content == null) return null;
+
+        String text = content.get();
+        return text == null ? "" : text;
     }
 
     /**
@@ -52,6 +69,10 @@ public class DownloadService {
     }
     
     public static Map<String, String> getAllFiles() {
-        return Collections.unmodifiableMap(generatedFiles);
+        Map<String, String> files = new LinkedHashMap<>();
+        for (String fileName : generatedFiles.keySet()) {
+            files.put(fileName, getFile(fileName));
+        }
+        return files;
     }
 }
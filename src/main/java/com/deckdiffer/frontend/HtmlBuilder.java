@@ -2,23 +2,28 @@
  * HtmlBuilder.java; Constructs HTML response pages
  *
  * Goal:
- * - Build the comparison result page HTML
+ * - Build the comparison result page HTML from a ComparisonResult, without recomputing any stats
  * - Render grouped card sections for cards in deck 1, deck 2, and in common
  * - Display the per-type count comparison between deck 1 and deck 2
  * - Display cost differences for cards unique to each deck, and total deck prices
+ * - Flag prices served from stale cache entries with the time they were fetched
+ * - Render cards still pending at the request deadline as placeholders, and fill them in from /card
+ * - Offer "did you mean" suggestions for card names that could not be found
  * - Provide download links and clipboard copying for comparing deck 1 and deck 2 cards.
  */
 
 package com.deckdiffer.frontend;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import com.deckdiffer.cards.CardData;
+import com.deckdiffer.cards.CardSnapshot;
 import com.deckdiffer.grouping.CardGrouping;
-import com.deckdiffer.parsing.DeckParser;
-import com.deckdiffer.stats.DeckStats;
+import com.deckdiffer.logic.ComparisonResult;
+import com.deckdiffer.parsing.Deck;
 import com.deckdiffer.stats.DeckStats.DeckStat;
 import com.deckdiffer.stats.DeckStats.ManaStats;
 
@@ -29,28 +34,22 @@ public class HtmlBuilder {
     /**
      * HTML for the comparison results page
      *
-     * @param deck1Only       Cards unique to Deck 1
-     * @param deck2Only       Cards unique to Deck 2
-     * @param common          Cards shared between Deck 1 + Deck 2
-     * @param deck1TypeCounts Type counts for Deck 1
-     * @param deck2TypeCounts Type counts for Deck 2
-     * @param deck1DiffCost   Total cost of cards only in Deck 1
-     * @param deck2DiffCost   Total cost of cards only in Deck 2
+     * @param result - the comparison, with its stats already computed
      * @return HTML page as string
      */
-    public static String buildResultsPage(
-            Map<String, Integer> deck1Only,
-            Map<String, Integer> deck2Only,
-            Map<String, Integer> common,
-            Map<String, Integer> deck1TypeCounts,
-            Map<String, Integer> deck2TypeCounts,
-            double deck1DiffCost,
-            double deck2DiffCost,
-            Map<String, CardData> cardDataCache)
+    public static String buildResultsPage(ComparisonResult result)
     {
-        // Compute all deck stats in one call per deck
-        DeckStat stats1 = DeckStats.computeDeckStats(deck1Only, common);
-        DeckStat stats2 = DeckStats.computeDeckStats(deck2Only, common);
+        // Everything is read from the result; no stats are recomputed and no card is looked up here
+        Deck deck1Only = result.deck1Only;            // Cards unique to Deck 1
+        Deck deck2Only = result.deck2Only;            // Cards unique to Deck 2
+        Deck common = result.common;                  // Cards shared between Deck 1 + Deck 2
+        CardSnapshot snapshot = result.snapshot;      // Card data resolved for this comparison
+        Map<String, List<String>> suggestions = result.suggestions;
+
+        DeckStat stats1 = result.deck1Stats;
+        DeckStat stats2 = result.deck2Stats;
+        Map<String, Integer> deck1TypeCounts = stats1.typeCounts;
+        Map<String, Integer> deck2TypeCounts = stats2.typeCounts;
 
         ManaStats d1 = stats1.manaStats;
         ManaStats d2 = stats2.manaStats;
@@ -152,6 +151,45 @@ public class HtmlBuilder {
                     .copy-btn:hover {
                         background: #ccc;
                     }
+
+                    .stale-price-badge {
+                        position: absolute;
+                        bottom: 6px;
+                        left: 6px;
+                        background: rgba(180,110,0,0.85);
+                        color: #fff;
+                        padding: 2px 6px;
+                        border-radius: 4px;
+                        font-size: 11px;
+                    }
+
+                    .stale-note {
+                        color: #8a5a00;
+                        font-style: italic;
+                    }
+
+                    .pending-tile {
+                        min-height: 250px;
+                        background: #ececec;
+                        border: 2px dashed #bbb;
+                        border-radius: 8px;
+                    }
+
+                    .pending-tile .card-fallback {
+                        padding: 12px;
+                        color: #555;
+                    }
+
+                    .price-pending-badge {
+                        position: absolute;
+                        bottom: 6px;
+                        left: 6px;
+                        background: rgba(60,60,60,0.8);
+                        color: #fff;
+                        padding: 2px 6px;
+                        border-radius: 4px;
+                        font-size: 11px;
+                    }
                 </style>
             </head>
             <body>
@@ -174,8 +212,49 @@ public class HtmlBuilder {
             .append("</p>")
             .append("<p><b>Deck 2 Only Prices:</b> $")
             .append(String.format("%.2f", stats2.onlyDiffCost))
-            .append("</p>")
-            .append("</div><hr>");
+            .append("</p>");
+
+        // Oldest stale price on the page; stale prices are re-fetched in the background
+        long oldestStale = -1L;
+        int pendingCount = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            CardData data = snapshot.dataAt(i);
+            if (data.priceStale && (oldestStale < 0 || data.priceAsOf < oldestStale)) {
+                oldestStale = data.priceAsOf;
+            }
+            if (data.isPending()) {
+                pendingCount++;
+            }
+        }
+        if (oldestStale >= 0) {
+            html.append("<p class='stale-note'>Some prices are past their freshness window. ")
+                .append("Cards marked \"as of\" show the last known price, which is refreshed for later comparisons; the oldest is ")
+                .append(CardGrouping.formatPriceAsOf(oldestStale))
+                .append(".</p>");
+        }
+
+        if (pendingCount > 0) {
+            html.append("<p class='stale-note'>")
+                .append(pendingCount)
+                .append(" card(s) were still loading and are not included in these totals. ")
+                .append("Their tiles fill in as the data arrives.</p>");
+        }
+        html.append("</div>");
+
+        /* Suggestions for names that were not found */
+        if (!suggestions.isEmpty()) {
+            html.append("<div class='cost-box'>")
+                .append("<h2>Did you mean?</h2><ul>");
+            for (var entry : suggestions.entrySet()) {
+                html.append("<li><b>")
+                    .append(HtmlEscaper.escape(entry.getKey()))
+                    .append("</b> &rarr; ")
+                    .append(HtmlEscaper.escape(String.join(", ", entry.getValue())))
+                    .append("</li>");
+            }
+            html.append("</ul></div>");
+        }
+        html.append("<hr>");
 
         /* Type Difference Summary */
         html.append("<h2>Card Type Differences</h2><ul>");
@@ -224,51 +303,51 @@ public class HtmlBuilder {
         html.append("""
             <div class='section-header' onclick="toggleSection('sec1', this)">
                 <span class="arrow">▶</span> In Deck 1, Not in Deck 2 (""")
-            .append(DeckParser.sumCounts(deck1Only)).append(")")
+            .append(deck1Only.totalCount()).append(")")
             .append("""
                 <button class='copy-btn' onclick="copySection(event, 'deck1only-copy')">Copy</button>
             </div>
             <textarea id='deck1only-copy' style='display:none;'>""")
-            .append(CardGrouping.buildNonDetailedTxtFile(deck1Only))
+            .append(HtmlEscaper.escape(CardGrouping.buildNonDetailedTxtFile(deck1Only)))
             .append("""
             </textarea>
             <div class='section-content' id='sec1'>
         """);
-        html.append(CardGrouping.buildGroupedHtml(deck1Only, cardDataCache));
+        html.append(CardGrouping.buildGroupedHtml(deck1Only, snapshot));
         html.append("</div><hr>");
 
         /* Deck 2 Only */
         html.append("""
             <div class='section-header' onclick="toggleSection('sec2', this)">
                 <span class="arrow">▶</span> In Deck 2, Not in Deck 1 (""")
-            .append(DeckParser.sumCounts(deck2Only)).append(")")
+            .append(deck2Only.totalCount()).append(")")
             .append("""
                 <button class='copy-btn' onclick="copySection(event,'deck2only-copy')">Copy</button>
             </div>
             <textarea id='deck2only-copy' style='display:none;'>""")
-            .append(CardGrouping.buildNonDetailedTxtFile(deck2Only))
+            .append(HtmlEscaper.escape(CardGrouping.buildNonDetailedTxtFile(deck2Only)))
             .append("""
             </textarea>
             <div class='section-content' id='sec2'>
         """);
-        html.append(CardGrouping.buildGroupedHtml(deck2Only, cardDataCache));
+        html.append(CardGrouping.buildGroupedHtml(deck2Only, snapshot));
         html.append("</div><hr>");
 
         /* Common Cards */
         html.append("""
             <div class='section-header' onclick="toggleSection('sec3', this)">
                 <span class="arrow">▶</span> Common in Both Decks (""")
-            .append(DeckParser.sumCounts(common)).append(")")
+            .append(common.totalCount()).append(")")
             .append("""
                 <button class='copy-btn' onclick="copySection(event, 'common-copy')">Copy</button>
             </div>
             <textarea id='common-copy' style='display:none;'>""")
-            .append(CardGrouping.buildNonDetailedTxtFile(common))
+            .append(HtmlEscaper.escape(CardGrouping.buildNonDetailedTxtFile(common)))
             .append("""
             </textarea>
             <div class='section-content' id='sec3'>
         """);
-        html.append(CardGrouping.buildGroupedHtml(common, cardDataCache));
+        html.append(CardGrouping.buildGroupedHtml(common, snapshot));
         html.append("</div>");
 
         /* Embed Download Links */
@@ -308,6 +387,53 @@ public class HtmlBuilder {
                         }
                     }
                 }
+                // Cards marked "price pending" were not fetched before the page was rendered;
+                // ask the server for each one again a few times, with a growing delay
+                function fillPendingCards(round){
+                    const tiles = document.querySelectorAll('[data-pending-card]');
+                    if (tiles.length === 0 || round > 5){
+                        return;
+                    }
+
+                    tiles.forEach(tile => {
+                        fetch('/card?name=' + encodeURIComponent(tile.dataset.pendingCard))
+                            .then(res => res.status === 200 ? res.json() : null)
+                            .then(card => {
+                                if (!card){
+                                    return;
+                                }
+                                tile.removeAttribute('data-pending-card');
+                                tile.classList.remove('pending-tile');
+
+                                const badge = tile.querySelector('.price-pending-badge');
+                                if (!card.found){
+                                    if (badge) badge.textContent = 'not found';
+                                    return;
+                                }
+
+                                if (card.imageUrl){
+                                    const img = document.createElement('img');
+                                    img.src = card.imageUrl;
+                                    img.alt = card.name;
+                                    const fallback = tile.querySelector('.card-fallback');
+                                    if (fallback) fallback.replaceWith(img);
+                                }
+                                if (badge){
+                                    badge.textContent = '$' + Number(card.price || 0).toFixed(2)
+                                        + (card.priceStale ? (card.priceAsOf > 0 ? ' (as of ' + new Date(card.priceAsOf).toLocaleString() + ')' : ' (stale)') : '');
+                                }
+                                if (card.scryfallUrl){
+                                    tile.style.cursor = 'pointer';
+                                    tile.addEventListener('click', () => window.open(card.scryfallUrl, '_blank'));
+                                }
+                            })
+                            .catch(() => {});
+                    });
+
+                    setTimeout(() => fillPendingCards(round + 1), 2000 * (round + 1));
+                }
+                setTimeout(() => fillPendingCards(0), 1000);
+
                 function copySection(event, id){
                     event.stopPropagation();
                     const e = document.getElementById(id);
@@ -0,0 +1,28 @@
+/**
+ * HtmlEscaper.java; Escapes text before it is placed in generated HTML.
+ *
+ * Card names and other strings typed by the user end up in element text, attribute values
+ * and textareas of the results page; every such string goes through escape() first.
+ */
+
+package com.deckdiffer.frontend;
+
+public final class HtmlEscaper {
+
+    private HtmlEscaper() {}
+
+    /**
+     * @param text - text to embed in HTML, may be null
+     * @return text with &, <, >, " and ' replaced by entities (safe in element text and quoted attributes)
+     */
+    public static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;")
+            .replace("'", "&#39;");
+    }
+}
@@ -10,12 +10,21 @@
 
 package com.deckdiffer.grouping;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import com.deckdiffer.cards.CardClassifier;
 import com.deckdiffer.cards.CardData;
+import com.deckdiffer.cards.CardSnapshot;
+import com.deckdiffer.frontend.HtmlEscaper;
+import com.deckdiffer.parsing.Deck;
 
 public class CardGrouping {
+    private static final DateTimeFormatter PRICE_AS_OF_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm 'UTC'").withZone(ZoneOffset.UTC);
+
     private CardGrouping() {}
 
     /**
@@ -29,40 +38,55 @@ public class CardGrouping {
         return count + " " + cardName;
     }
 
+    /**
+     * Formats the time a price was fetched for display.
+     * Example: "as of 2025-03-14 09:30 UTC"
+     * @param priceAsOf - epoch millis the price was fetched (see CardData.priceAsOf)
+     * @return label, or "stale price" if the time is unknown
+     */
+    public static String formatPriceAsOf(long priceAsOf) {
+        if (priceAsOf <= 0L) {
+            return "stale price";
+        }
+        return "as of " + PRICE_AS_OF_FORMAT.format(Instant.ofEpochMilli(priceAsOf));
+    }
+
     /**
      * Groups cards into:
-     * Primary Type → Color Category → List of display labels
+     * Primary Type → Color Category → List of card ids, sorted by card name
      *
      * Ex:
      * Creature → 
-     *    White → ["1 Cloud, Midgar Mercenary"]
-     *    Blue  → ["1 Aether Adept"]
+     *    White → [id of "Cloud, Midgar Mercenary"]
+     *    Blue  → [id of "Aether Adept"]
      *
-     * @param cardCounts - map of card name to its count
-     * @param cardDataMap - map of card name to is data
+     * @param deck - cards and their counts
+     * @param snapshot - card data resolved for this comparison; cards missing from it are skipped
      * @return map of primary type then by color category(s) then cards
      */
-    public static Map<String, Map<String, List<String>>> groupTypeThenColor(Map<String, Integer> cardCounts, Map<String, CardData> cardDataMap) {
+    public static Map<String, Map<String, List<Integer>>> groupTypeThenColor(Deck deck, CardSnapshot snapshot) {
 
-        Map<String, Map<String, List<String>>> res = new LinkedHashMap<>();
+        Map<String, Map<String, List<Integer>>> res = new LinkedHashMap<>();
 
-        for (Map.Entry<String, Integer> entry : cardCounts.entrySet()) {
-            String card = entry.getKey();
-            int count = entry.getValue();
-
-            CardData data = cardDataMap.get(card);
+        deck.forEach((card, count) -> {
+            CardData data = snapshot.get(card);
             if (data == null){
-                continue;
+                return;
             }
 
             String primaryType = data.primaryType;
             String colorCategory = data.colorCategory;
 
-            res.putIfAbsent(primaryType, new LinkedHashMap<>());
-            res.get(primaryType).putIfAbsent(colorCategory, new ArrayList<>());
+            res.computeIfAbsent(primaryType, t -> new LinkedHashMap<>())
+               .computeIfAbsent(colorCategory, c -> new ArrayList<>())
+               .add(card);
+        });
 
-            String label = buildDisplayLabel(card, count);
-            res.get(primaryType).get(colorCategory).add(label);
+        Comparator<Integer> byName = Comparator.comparing(deck::name, String::compareToIgnoreCase);
+        for (Map<String, List<Integer>> colors : res.values()) {
+            for (List<Integer> cards : colors.values()) {
+                cards.sort(byName);
+            }
         }
 
         return res;
@@ -73,35 +97,26 @@ public class CardGrouping {
      * grouped first by primary card type
      * and then sub-grouped by color identity.
      *
-     * @param cardMap - Map of card names as a string and card count as a integer
-     * @param cardDataMap - Map of card names as a string and card data as CardData object
+     * @param deck - cards and their counts
+     * @param snapshot - card data resolved for this comparison
      * @return block of html representing grouped card data
      */
-    public static String buildGroupedHtml(Map<String, Integer> cardMap, Map<String, CardData> cardDataMap) {
+    public static String buildGroupedHtml(Deck deck, CardSnapshot snapshot) {
 
         StringBuilder html = new StringBuilder();
 
-        // Group cards: primary type -> color -> labels
-        Map<String, Map<String, List<String>>> grouped = groupTypeThenColor(cardMap, cardDataMap);
+        // Group cards: primary type -> color -> card ids
+        Map<String, Map<String, List<Integer>>> grouped = groupTypeThenColor(deck, snapshot);
 
         // Sort primary types by priority
         List<String> primaryTypes = new ArrayList<>(grouped.keySet());
         primaryTypes.sort(Comparator.comparingInt(CardClassifier::typeToPriority));
 
         for (String type : primaryTypes) {
-            int typeCount = 0;
-            Map<String, List<String>> colors = grouped.get(type);
+            Map<String, List<Integer>> colors = grouped.get(type);
 
             // Count total number of cards for this primary type
-            for (List<String> labels : colors.values()) {
-                for (String label : labels) {
-                    int idx = label.indexOf(' ');
-                    if (idx > 0) {
-                        int count = Integer.parseInt(label.substring(0, idx));
-                        typeCount += count;
-                    }
-                }
-            }
+            int typeCount = countCards(deck, colors);
 
             // Type header (Creature, Land, Artifact, ...)
             html.append("<h3>").append(type).append(" (")
@@ -120,23 +135,31 @@ public class CardGrouping {
 
                 html.append("<div class='card-grid'>");
 
-                List<String> cardLabels = colors.get(color);
-                Collections.sort(cardLabels, String::compareToIgnoreCase);
+                for (int card : colors.get(color)) {
 
-                for (String label : cardLabels) {
+                    String cardName = deck.name(card);
+                    int count = deck.count(card);
+                    // ex label: "3 Lightning Bolt"; card names are user input, so they are escaped for the page
+                    String label = HtmlEscaper.escape(buildDisplayLabel(cardName, count));
+                    String escapedName = HtmlEscaper.escape(cardName);
 
-                    // ex label: "3 Lightning Bolt"
-                    int idx = label.indexOf(' ');
-                    int count = 1;
-                    String cardName = label;
+                    CardData data = snapshot.get(card);
 
-                    if (idx > 0) {
-                        count = Integer.parseInt(label.substring(0, idx));
-                        cardName = label.substring(idx + 1).trim();
-                    }
-
-                    CardData data = cardDataMap.get(cardName);
-                    if (data == null){
+                    // Not fetched before the request deadline; the page fills the tile in later
+                    if (data.isPending()) {
+                        html.append("<div class='card-tile pending-tile' data-pending-card='")
+                            .append(escapedName)
+                            .append("'>")
+                            .append("<div class='card-fallback'>")
+                            .append(label)
+                            .append("</div>");
+                        if (count > 1) {
+                            html.append("<div class='card-count-badge'>x")
+                                .append(count)
+                                .append("</div>");
+                        }
+                        html.append("<div class='price-pending-badge'>price pending</div>")
+                            .append("</div>"); // .card-tile
                         continue;
                     }
 
@@ -150,7 +173,7 @@ public class CardGrouping {
                         html.append("<img src='")
                             .append(imgUrl)
                             .append("' alt='")
-                            .append(cardName.replace("'", "&#39;"))
+                            .append(escapedName)
                             .append("'>");
                     } else {
                         // If no image is found, use a textbox
@@ -166,6 +189,13 @@ public class CardGrouping {
                             .append("</div>");
                     }
 
+                    // Price past its freshness window, being re-fetched; show how old it is
+                    if (data.priceStale) {
+                        html.append("<div class='stale-price-badge'>")
+                            .append(formatPriceAsOf(data.priceAsOf))
+                            .append("</div>");
+                    }
+
                     html.append("</div></a>"); // .card-tile
                 }
 
@@ -180,21 +210,24 @@ public class CardGrouping {
      * Each line: "{Card count} {Card Name}"
      * Sorted alphabetically.
      *
-     * @param cardMap - Map of card names as a string and card count as a integer
+     * @param deck - cards and their counts
      * @return String txt representation of cards grouped by type and color, sorted alphabetically within
      */
-    public static String buildNonDetailedTxtFile(Map<String, Integer> cardMap) {
+    public static String buildNonDetailedTxtFile(Deck deck) {
         StringBuilder sb = new StringBuilder();
 
-        List<String> cards = new ArrayList<>(cardMap.keySet());
-        Collections.sort(cards, String::compareToIgnoreCase);
+        List<Integer> cards = new ArrayList<>();
+        for (int card : deck.ids()) {
+            cards.add(card);
+        }
+        cards.sort(Comparator.comparing(deck::name, String::compareToIgnoreCase));
 
-        for (String card : cards) {
-            if (card.startsWith("#")) {
+        for (int card : cards) {
+            String cardName = deck.name(card);
+            if (cardName.startsWith("#")) {
                 continue;
             }
-            int count = cardMap.getOrDefault(card, 0);
-            sb.append(count).append(" ").append(card).append("\n");
+            sb.append(deck.count(card)).append(" ").append(cardName).append("\n");
         }
 
         return sb.toString();
@@ -213,15 +246,19 @@ public class CardGrouping {
      * # BLUE
      * 3 Aether Adept
      *
-     * @param cardMap - Map of card names as a string and card count as a integer
-     * @param cardDataMap - Map of card names as a string and card data as CardData object
+     * Cards still pending have no type or color yet; they are listed last under a note
+     * instead of being grouped.
+     *
+     * @param deck - cards and their counts
+     * @param snapshot - card data resolved for this comparison
      * @return grouped txt representation
      */
-    public static String buildDetailedTxtFile(Map<String, Integer> cardMap, Map<String, CardData> cardDataMap) {
+    public static String buildDetailedTxtFile(Deck deck, CardSnapshot snapshot) {
 
         StringBuilder sb = new StringBuilder();
 
-        Map<String, Map<String, List<String>>> grouped = groupTypeThenColor(cardMap, cardDataMap);
+        Map<String, Map<String, List<Integer>>> grouped = groupTypeThenColor(deck, snapshot);
+        List<Integer> pending = removePending(grouped, snapshot);
 
         // Sort primary types
         List<String> primaryTypes = new ArrayList<>(grouped.keySet());
@@ -230,18 +267,8 @@ public class CardGrouping {
         // Count number of cards in a primary type
         // For example, if there are 12 creatures in the deck, Creature (12)
         for (String type : primaryTypes) {
-            int typeCount = 0;
-            Map<String, List<String>> colors = grouped.get(type);
-
-            for (List<String> labels : colors.values()) {
-                for (String label : labels) {
-                    int idx = label.indexOf(' ');
-                    if (idx > 0) {
-                        int count = Integer.parseInt(label.substring(0, idx));
-                        typeCount += count;
-                    }
-                }
-            }
+            Map<String, List<Integer>> colors = grouped.get(type);
+            int typeCount = countCards(deck, colors);
             
             // Write primary type and count
             sb.append("# ")
@@ -258,11 +285,8 @@ public class CardGrouping {
             for (String color : colorKeys) {
                 sb.append("# ").append(color.toUpperCase()).append("\n");
 
-                List<String> cardLabels = colors.get(color);
-                Collections.sort(cardLabels, String::compareToIgnoreCase);
-
-                for (String label : cardLabels) {
-                    sb.append(label).append("\n");
+                for (int card : colors.get(color)) {
+                    sb.append(buildDisplayLabel(deck.name(card), deck.count(card))).append("\n");
                 }
 
                 sb.append("\n");
@@ -271,6 +295,71 @@ public class CardGrouping {
             sb.append("\n");
         }
 
+        if (!pending.isEmpty()) {
+            int pendingCount = 0;
+            for (int card : pending) {
+                pendingCount += deck.count(card);
+            }
+            sb.append("# NOT YET LOOKED UP (")
+              .append(pendingCount)
+              .append(")\n")
+              .append("# Type and color were not known yet when this file was built; download it again to sort these in\n");
+            for (int card : pending) {
+                sb.append(buildDisplayLabel(deck.name(card), deck.count(card))).append("\n");
+            }
+        }
+
         return sb.toString();
     }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * Takes the cards that are still pending out of a grouping, dropping groups left empty
+     *
+     * @param grouped - primary type -> color category -> card ids, as built by groupTypeThenColor
+     * @param snapshot - card data resolved for this comparison
+     * @return the removed card ids, sorted by card name
+     */
+    private static List<Integer> removePending(Map<String, Map<String, List<Integer>>> grouped, CardSnapshot snapshot) {
+        List<Integer> pending = new ArrayList<>();
+
+        for (Iterator<Map<String, List<Integer>>> types = grouped.values().iterator(); types.hasNext(); ) {
+            Map<String, List<Integer>> colors = types.next();
+            for (Iterator<List<Integer>> groups = colors.values().iterator(); groups.hasNext(); ) {
+                List<Integer> cards = groups.next();
+                for (Iterator<Integer> it = cards.iterator(); it.hasNext(); ) {
+                    int card = it.next();
+                    if (snapshot.get(card).isPending()) {
+                        pending.add(card);
+                        it.remove();
+                    }
+                }
+                if (cards.isEmpty()) {
+                    groups.remove();
+                }
+            }
+            if (colors.isEmpty()) {
+                types.remove();
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * @param deck - cards and their counts
+     * @param colors - color category -> card ids of one primary type
+     * @return total number of cards (counting copies) across the color categories
+     */
+    private static int countCards(Deck deck, Map<String, List<Integer>> colors) {
+        int total = 0;
+        for (List<Integer> cards : colors.values()) {
+            for (int card : cards) {
+                total += deck.count(card);
+            }
+        }
+        return total;
+    }
 }
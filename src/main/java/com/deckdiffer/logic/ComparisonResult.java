@@ -0,0 +1,72 @@
+/**
+ * ComparisonResult.java; Everything one /compare produced, computed once and then only read.
+ *
+ * Holds the diff partitions, the resolved card data, both decks' statistics (including type counts)
+ * and the "did you mean" suggestions. The results page, the text downloads and any other renderer
+ * read from it rather than recomputing stats or looking cards up again.
+ */
+
+package com.deckdiffer.logic;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.deckdiffer.cards.CardSnapshot;
+import com.deckdiffer.parsing.Deck;
+import com.deckdiffer.stats.DeckStats;
+import com.deckdiffer.stats.DeckStats.ComparisonStats;
+import com.deckdiffer.stats.DeckStats.DeckStat;
+
+public final class ComparisonResult {
+
+    // The diff the partitions below come from, with per-card counts in both decks
+    public final DeckDiff diff;
+
+    // Cards unique to Deck 1, unique to Deck 2, and shared by both
+    public final Deck deck1Only;
+    public final Deck deck2Only;
+    public final Deck common;
+
+    // Card data of every card in either deck, as resolved for this comparison
+    public final CardSnapshot snapshot;
+
+    // Stats of each full deck: cost, mana, type counts
+    public final DeckStat deck1Stats;
+    public final DeckStat deck2Stats;
+
+    // Names that were not found -> closest known card names
+    public final Map<String, List<String>> suggestions;
+
+    private ComparisonResult(DeckDiff diff, CardSnapshot snapshot, ComparisonStats stats, Map<String, List<String>> suggestions) {
+        this.diff = diff;
+        this.deck1Only = diff.deck1Only;
+        this.deck2Only = diff.deck2Only;
+        this.common = diff.common;
+        this.snapshot = snapshot;
+        this.deck1Stats = stats.deck1;
+        this.deck2Stats = stats.deck2;
+        this.suggestions = Collections.unmodifiableMap(new LinkedHashMap<>(suggestions));
+    }
+
+    /**
+     * Computes the stats of both decks (one pass over the diff) and bundles them with the rest
+     *
+     * @param diff - result of DeckComparer.diff
+     * @param snapshot - card data resolved for diff.ids()
+     * @param suggestions - names that were not found -> closest known card names
+     * @return the comparison result
+     */
+    public static ComparisonResult of(DeckDiff diff, CardSnapshot snapshot, Map<String, List<String>> suggestions) {
+        return new ComparisonResult(diff, snapshot, DeckStats.computeComparisonStats(diff, snapshot), suggestions);
+    }
+
+    /**
+     * @return Map <String, int[]> of primary type -> {count in Deck 1, count in Deck 2}
+     *         (see DeckComparer.computeTypeDifferences)
+     */
+    public Map<String, int[]> typeDifferences() {
+        return DeckComparer.computeTypeDifferences(deck1Stats, deck2Stats);
+    }
+}
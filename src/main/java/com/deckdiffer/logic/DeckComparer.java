@@ -11,68 +11,94 @@
 package com.deckdiffer.logic;
 
 import java.util.*;
-import com.deckdiffer.stats.DeckStats;
+import com.deckdiffer.parsing.Deck;
+import com.deckdiffer.stats.DeckStats.DeckStat;
 
 public class DeckComparer {
 
     private DeckComparer() {}
 
     /**
-     * @param deck1 - Map of card name to card count representing deck1
-     * @param deck2 - Map of card name to card count representing deck2
-     * @return cards that appear exclusively in Deck 1 with their counts
+     * Compares two decks in one merge pass over their card ids, filling all three partitions
+     * and the per-card deltas at once.
+     *
+     * Example:
+     * deck1: {"Sol Ring": 1, "Island": 10, "Mountain": 12}
+     * deck2: {"Sol Ring": 1, "Island": 9, "Plains": 3}
+     * deck1Only = {"Island": 1, "Mountain": 12}
+     * deck2Only = {"Plains": 3}
+     * common = {"Sol Ring": 1, "Island": 9}
+     *
+     * @param deck1 - Deck of card id to card count representing deck1
+     * @param deck2 - Deck of card id to card count representing deck2 (same dictionary)
+     * @return DeckDiff holding the partitions and per-card deltas
      */
-    public static Map<String, Integer> computeDeck1Only(Map<String, Integer> deck1, Map<String, Integer> deck2) {
-        return computeDifference(deck1, deck2);
-    }
-
-    /**
-     * @param deck1 - Map of card name to card count representing deck1
-     * @param deck2 - Map of card name to card count representing deck2
-     * @return cards that appear exclusively in Deck 2 with their counts
-     */ 
-    public static Map<String, Integer> computeDeck2Only(Map<String, Integer> deck1, Map<String, Integer> deck2) {
-        return computeDifference(deck2, deck1);
-    }
-
-    /**
-     * @param deck1 - Map of card name to card count representing deck1
-     * @param deck2 - Map of card name to card count representing deck2
-     * @return cards that appear in BOTH decks (minimum count)
-     */
-    public static Map<String, Integer> computeCardsInCommon(Map<String, Integer> deck1, Map<String, Integer> deck2) {
-
-        Map<String, Integer> result = new LinkedHashMap<>();
-
-        Set<String> allCards = new HashSet<>();
-        allCards.addAll(deck1.keySet());
-        allCards.addAll(deck2.keySet());
-
-        for (String card : allCards) {
-            int count1 = deck1.getOrDefault(card, 0);
-            int count2 = deck2.getOrDefault(card, 0);
+    public static DeckDiff diff(Deck deck1, Deck deck2) {
+        Deck.Builder deck1Only = new Deck.Builder(deck1.dictionary());
+        Deck.Builder deck2Only = new Deck.Builder(deck1.dictionary());
+        Deck.Builder common = new Deck.Builder(deck1.dictionary());
+
+        int[] ids = new int[deck1.size() + deck2.size()];
+        int[] deck1Counts = new int[ids.length];
+        int[] deck2Counts = new int[ids.length];
+        int n = 0;
+
+        // Cards reach every builder in ascending id order, so none of them has to sort
+        int i = 0;
+        int j = 0;
+        while (i < deck1.size() || j < deck2.size()) {
+            int card;
+            int count1 = 0;
+            int count2 = 0;
+
+            if (j == deck2.size() || (i < deck1.size() && deck1.idAt(i) < deck2.idAt(j))) {
+                card = deck1.idAt(i);
+                count1 = deck1.countAt(i++);
+            }
+            else if (i == deck1.size() || deck2.idAt(j) < deck1.idAt(i)) {
+                card = deck2.idAt(j);
+                count2 = deck2.countAt(j++);
+            }
+            else {
+                card = deck1.idAt(i);
+                count1 = deck1.countAt(i++);
+                count2 = deck2.countAt(j++);
+            }
 
-            int common = Math.min(count1, count2);
-            if (common > 0) {
-                result.put(card, common);
+            if (count1 > count2) {
+                deck1Only.add(card, count1 - count2);
             }
+            else if (count2 > count1) {
+                deck2Only.add(card, count2 - count1);
+            }
+            if (count1 > 0 && count2 > 0) {
+                common.add(card, Math.min(count1, count2));
+            }
+
+            ids[n] = card;
+            deck1Counts[n] = count1;
+            deck2Counts[n++] = count2;
         }
-        return result;
+
+        return new DeckDiff(deck1Only.build(), deck2Only.build(), common.build(),
+            Arrays.copyOf(ids, n), Arrays.copyOf(deck1Counts, n), Arrays.copyOf(deck2Counts, n));
     }
 
     /**
-     * @param deck1 - Map of card name to card count representing deck1
-     * @param deck2 - Map of card name to card count representing deck2
+     * Merges the type counts DeckStats gathered for each deck; no card is looked up again.
+     * @param stats1 - stats of Deck 1 (see DeckStats.computeComparisonStats)
+     * @param stats2 - stats of Deck 2
      * @return Map <String, int[]>: Returns a map describing how type counts changed between base and upgraded.
      * where
      * value[0] = count in Deck 1
      * value[1] = count in Deck 2
      * Ex: Creature -> {20, 25} // The amount of creatures in the deck increased from 20 cards to 25 cards
      */
-    public static Map<String, int[]> computeTypeDifferences(Map<String, Integer> deck1, Map<String, Integer> deck2) {
+    public static Map<String, int[]> computeTypeDifferences(DeckStat stats1, DeckStat stats2) {
+        return mergeTypeCounts(stats1.typeCounts, stats2.typeCounts);
+    }
 
-        Map<String, Integer> d1Types = DeckStats.computeTypeCounts(deck1);
-        Map<String, Integer> d2Types = DeckStats.computeTypeCounts(deck2);
+    private static Map<String, int[]> mergeTypeCounts(Map<String, Integer> d1Types, Map<String, Integer> d2Types) {
 
         Map<String, int[]> result = new LinkedHashMap<>();
 
@@ -89,29 +115,4 @@ public class DeckComparer {
 
         return result;
     }
-
-    /**
-     * Given two "decks" a and b, return resultant deck which calculates which cards
-     * are present in Map a more tiems than in Map B
-     * 
-     * Example: 
-     * a: {"Sol Ring": 1, "Island": 10, "Mountain": 12}
-     * b: {"Sol Ring": 1, "Island": 9, "Mountain": 10} 
-     * res = {"Island: 1", "Mountain: 2"}
-     * 
-     * @param a - Map of card name to card count representing deck "a"
-     * @param b - Map of card name to card count representing deck "b"
-     * @return Map<String, Integer> representing which cards are in excess Deck a compared to deck B
-     */
-    private static Map<String, Integer> computeDifference(Map<String, Integer> a, Map<String, Integer> b) {
-        Map<String, Integer> res = new LinkedHashMap<>();
-
-        for (String card : a.keySet()) {
-            int diff = a.getOrDefault(card, 0) - b.getOrDefault(card, 0);
-            if (diff > 0) {
-                res.put(card, diff);
-            }
-        }
-        return res;
-    }
 }
@@ -0,0 +1,97 @@
+/**
+ * DeckDiff.java; Result of comparing two decks, produced by DeckComparer.diff in a single pass.
+ *
+ * Holds the three partitions shown on the results page (cards only in Deck 1, only in Deck 2,
+ * and in both) plus, for every card in either deck, its count in each deck and the change between them.
+ * Positions ascend by card id, the same order as a CardSnapshot resolved for diff.ids(), so the two
+ * can be walked together by index.
+ */
+
+package com.deckdiffer.logic;
+
+import java.util.Arrays;
+
+import com.deckdiffer.parsing.Deck;
+
+public class DeckDiff {
+
+    // Cards present in Deck 1 more times than in Deck 2, with the excess count
+    public final Deck deck1Only;
+
+    // Cards present in Deck 2 more times than in Deck 1, with the excess count
+    public final Deck deck2Only;
+
+    // Cards present in both decks, with the smaller of the two counts
+    public final Deck common;
+
+    // Every card of either deck, ascending, with its count in Deck 1 and in Deck 2 (0 if absent)
+    private final int[] ids;
+    private final int[] deck1Counts;
+    private final int[] deck2Counts;
+
+    DeckDiff(Deck deck1Only, Deck deck2Only, Deck common, int[] ids, int[] deck1Counts, int[] deck2Counts) {
+        this.deck1Only = deck1Only;
+        this.deck2Only = deck2Only;
+        this.common = common;
+        this.ids = ids;
+        this.deck1Counts = deck1Counts;
+        this.deck2Counts = deck2Counts;
+    }
+
+    /**
+     * Ex: 3 Island in Deck 1, 5 Island in Deck 2 -> 2
+     *
+     * @param id - card id
+     * @return change in the card's count from Deck 1 to Deck 2; 0 if unchanged or in neither deck
+     */
+    public int delta(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? 0 : deltaAt(index);
+    }
+
+    /**
+     * @return number of distinct cards across both decks
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return ids of every card in either deck, ascending (a copy)
+     */
+    public int[] ids() {
+        return ids.clone();
+    }
+
+    /**
+     * @param index - position, 0 to size() - 1
+     * @return card id at that position; ids ascend with the index
+     */
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index - position, 0 to size() - 1
+     * @return change in count from Deck 1 to Deck 2 of the card at that position
+     */
+    public int deltaAt(int index) {
+        return deck2Counts[index] - deck1Counts[index];
+    }
+
+    /**
+     * @param index - position, 0 to size() - 1
+     * @return count in Deck 1 of the card at that position, 0 if Deck 1 lacks it
+     */
+    public int deck1CountAt(int index) {
+        return deck1Counts[index];
+    }
+
+    /**
+     * @param index - position, 0 to size() - 1
+     * @return count in Deck 2 of the card at that position, 0 if Deck 2 lacks it
+     */
+    public int deck2CountAt(int index) {
+        return deck2Counts[index];
+    }
+}
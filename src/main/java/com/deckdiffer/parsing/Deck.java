@@ -0,0 +1,230 @@
+/**
+ * Deck.java; Immutable multiset of cards: card id -> count.
+ *
+ * Card ids come from a CardDictionary, so a deck never stores or hashes card names; the name of an id
+ * is read back from the dictionary when it is displayed. Decks are produced by DeckParser.parse and by
+ * the DeckComparer set operations, and built with Deck.Builder.
+ *
+ * Entries are held in two parallel primitive arrays sorted by card id, so lookups are a binary search,
+ * iteration is by index, and two decks can be walked side by side in one merge pass, all without boxing.
+ */
+
+package com.deckdiffer.parsing;
+
+import java.util.Arrays;
+
+import com.deckdiffer.cards.CardDictionary;
+
+public final class Deck {
+
+    // Receives one (card id, count) entry of a deck
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int id, int count);
+    }
+
+    private final CardDictionary dictionary;
+    private final int[] ids;    // ascending, distinct
+    private final int[] counts; // counts[i] belongs to ids[i], always > 0
+    private final int totalCount;
+
+    private Deck(CardDictionary dictionary, int[] ids, int[] counts) {
+        this.dictionary = dictionary;
+        this.ids = ids;
+        this.counts = counts;
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        this.totalCount = total;
+    }
+
+    /**
+     * @param id - card id
+     * @return number of copies of the card, 0 if the deck does not contain it
+     */
+    public int count(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    /**
+     * @param id - card id
+     * @return true if the deck contains at least one copy of the card
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * @return number of distinct cards
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return true if the deck has no cards
+     */
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * @return total number of cards, counting copies
+     */
+    public int totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param index - position in the deck, 0 to size() - 1
+     * @return card id at that position; ids ascend with the index
+     */
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index - position in the deck, 0 to size() - 1
+     * @return count of the card at that position
+     */
+    public int countAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @return ids of the distinct cards, ascending (a copy)
+     */
+    public int[] ids() {
+        return ids.clone();
+    }
+
+    /**
+     * Visits every distinct card with its count, in ascending id order
+     *
+     * @param action - receives (card id, count)
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < ids.length; i++) {
+            action.accept(ids[i], counts[i]);
+        }
+    }
+
+    /**
+     * @return dictionary the card ids belong to
+     */
+    public CardDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param id - card id
+     * @return name of the card
+     */
+    public String name(int id) {
+        return dictionary.name(id);
+    }
+
+    /**
+     * @param dictionary - dictionary the card ids belong to
+     * @return a deck without cards
+     */
+    public static Deck empty(CardDictionary dictionary) {
+        return new Deck(dictionary, new int[0], new int[0]);
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private static int[] trim(int[] array, int length) {
+        return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+
+    // Accumulates (card id, count) entries; adding a card again adds to its count.
+    // Entries added in ascending id order (as DeckComparer does) are taken over without sorting.
+    public static final class Builder {
+        private final CardDictionary dictionary;
+        private int[] ids = new int[16];
+        private int[] counts = new int[16];
+        private int size;
+        private boolean ascending = true;
+
+        public Builder(CardDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * @param id - card id
+         * @param count - copies to add; entries with a total of 0 or less are dropped by build()
+         * @return this builder
+         */
+        public Builder add(int id, int count) {
+            if (size > 0 && id <= ids[size - 1]) {
+                if (id == ids[size - 1]) {
+                    counts[size - 1] += count;
+                    return this;
+                }
+                ascending = false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            ids[size] = id;
+            counts[size++] = count;
+            return this;
+        }
+
+        /**
+         * @return the deck; the builder must not be used afterwards
+         */
+        public Deck build() {
+            if (!ascending) {
+                sortAndCombine();
+            }
+
+            // Drop entries whose counts cancelled out (or were never positive)
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (counts[i] > 0) {
+                    ids[n] = ids[i];
+                    counts[n++] = counts[i];
+                }
+            }
+
+            Deck deck = new Deck(dictionary, trim(ids, n), trim(counts, n));
+            ids = null;
+            counts = null;
+            return deck;
+        }
+
+        /**
+         * Sorts the entries by id and sums the counts of repeated ids.
+         * Each entry is packed into one long (id in the high half) so a primitive sort orders them.
+         */
+        private void sortAndCombine() {
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((long) ids[i] << 32) | (counts[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed);
+
+            int n = 0;
+            for (long entry : packed) {
+                int id = (int) (entry >>> 32);
+                int count = (int) entry;
+                if (n > 0 && ids[n - 1] == id) {
+                    counts[n - 1] += count;
+                }
+                else {
+                    ids[n] = id;
+                    counts[n++] = count;
+                }
+            }
+            size = n;
+        }
+    }
+}
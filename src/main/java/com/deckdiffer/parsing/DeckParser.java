@@ -3,11 +3,16 @@
  * 
  * Provides utility methods for converting raw decklist text into card name -> quantity map,
  * counting total card counts, converting maps back into lines, and writing into txt file.
+ *
+ * parse() produces a Deck keyed by CardDictionary ids instead, so each card name is hashed
+ * once, when its line is read, rather than on every later lookup.
  */
 
 package com.deckdiffer.parsing;
 import java.util.*;
 
+import com.deckdiffer.cards.CardDictionary;
+
 public class DeckParser {
 
     private DeckParser() {
@@ -28,10 +33,82 @@ public class DeckParser {
      */
     public static Map<String, Integer> parseDeck(String deckText) {
         Map<String, Integer> map = new LinkedHashMap<>();
+        forEachLine(deckText, (name, count) -> map.put(name, map.getOrDefault(name, 0) + count));
+        return map;
+    }
+
+    /**
+     * Parses deck text straight into a Deck of card ids. Alternate faces are stripped
+     * ("A // B" -> "A", as in normalizeNames) and each name is interned once per line.
+     * Lines left without a name once stripped (e.g. "// Sideboard") are skipped.
+     *
+     * @param deckText - Multi-line deck text
+     * @param dictionary - dictionary assigning the card ids
+     * @return Deck of card id -> card count
+     */
+    public static Deck parse(String deckText, CardDictionary dictionary) {
+        Deck.Builder deck = new Deck.Builder(dictionary);
+        forEachLine(deckText, (name, count) -> {
+            String cardName = stripAlternateFaces(name);
+            if (!cardName.isEmpty()) {
+                deck.add(dictionary.idOf(cardName), count);
+            }
+        });
+        return deck.build();
+    }
 
+    /**
+     * @param cardMap - Map<String, Integer> epresenting a deck of cards (card name -> card count)
+     * @return total number of cards in a card map
+     */
+    public static int sumCounts(Map<String, Integer> cardMap) {
+        int sum = 0;
+        for (int val : cardMap.values()){
+            sum += val;
+        }
+        return sum;
+    }
+
+    /**
+    * Normalizes card names to a canonical form for comparison.
+    * Strips off everything after "//" for MDFC / face cards
+    * Makes for easier comparisons
+    * 
+    * @param cardMap - Map<String, Integer> epresenting a deck of cards (card name -> card count) 
+    * 
+    */
+    public static Map<String, Integer> normalizeNames(Map<String, Integer> cardMap) {
+        Map<String, Integer> res = new LinkedHashMap<>();
+
+        for (var entry : cardMap.entrySet()) {
+            String name = entry.getKey();
+            int count = entry.getValue();
+
+            res.put(stripAlternateFaces(name), count);
+        }
+        return res;
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    // Receives the card name and count of one deck line
+    private interface LineConsumer {
+        void accept(String name, int count);
+    }
+
+    /**
+     * Splits deck text into lines and reports the card name and count of each card line.
+     * Blank lines and "#" comments are skipped; a line without a leading number counts once.
+     *
+     * @param deckText - Multi-line deck text, may be null
+     * @param action - receives (card name, count) per card line
+     */
+    private static void forEachLine(String deckText, LineConsumer action) {
         // deckText is a massive string representing decklist with \n separations
         if (deckText == null){
-            return map;
+            return;
         }
         // split by newline or carraige return + newline
         for (String line : deckText.split("\\r?\\n")) {
@@ -64,48 +141,20 @@ public class DeckParser {
             }
 
             if (!name.isEmpty()) {
-                map.put(name, map.getOrDefault(name, 0) + count);
+                action.accept(name, count);
             }
         }
-        return map;
     }
 
     /**
-     * @param cardMap - Map<String, Integer> epresenting a deck of cards (card name -> card count)
-     * @return total number of cards in a card map
+     * Remove alternate faces, e.g.
+     * "A // B" → "A"
      */
-    public static int sumCounts(Map<String, Integer> cardMap) {
-        int sum = 0;
-        for (int val : cardMap.values()){
-            sum += val;
-        }
-        return sum;
-    }
-
-    /**
-    * Normalizes card names to a canonical form for comparison.
-    * Strips off everything after "//" for MDFC / face cards
-    * Makes for easier comparisons
-    * 
-    * @param cardMap - Map<String, Integer> epresenting a deck of cards (card name -> card count) 
-    * 
-    */
-    public static Map<String, Integer> normalizeNames(Map<String, Integer> cardMap) {
-        Map<String, Integer> res = new LinkedHashMap<>();
-
-        for (var entry : cardMap.entrySet()) {
-            String name = entry.getKey();
-            int count = entry.getValue();
-
-            // Remove alternate faces, e.g.
-            // "A // B" → "A"
-            int idx = name.indexOf("//");
-            if (idx != -1) {
-                name = name.substring(0, idx).trim();
-            }
-
-            res.put(name, count);
+    private static String stripAlternateFaces(String name) {
+        int idx = name.indexOf("//");
+        if (idx != -1) {
+            name = name.substring(0, idx).trim();
         }
-        return res;
+        return name;
     }
 }
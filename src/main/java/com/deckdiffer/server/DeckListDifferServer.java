@@ -4,30 +4,56 @@
  * Goal:
  * - Configure Spark Server
  * - Define web routes
- * - Uses DeckComparer for diff logic
+ * - Uses DeckComparer for diff logic, bundled with the stats into one ComparisonResult per comparison
  * - HtmlBuilder for HTML formatting and layout
  * - DownloadService for file storage and downloable files
+ * - Bounds each comparison by a latency budget; cards not fetched in time render as pending
+ *   and are filled in by the page through /card
+ * - Restores the card cache from its last snapshot, warms it in the background at startup
+ *   and reports readiness through /ready
  */
 
 package com.deckdiffer.server;
 
 import static spark.Spark.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
+import com.deckdiffer.cards.CardCatalog;
 import com.deckdiffer.cards.CardData;
 import com.deckdiffer.cards.CardDataProvider;
+import com.deckdiffer.cards.CardDictionary;
+import com.deckdiffer.cards.CardSnapshot;
+import com.deckdiffer.cards.Deadline;
+import com.deckdiffer.cards.ScryfallClient;
 import com.deckdiffer.grouping.CardGrouping;
+import com.deckdiffer.logic.ComparisonResult;
 import com.deckdiffer.logic.DeckComparer;
+import com.deckdiffer.logic.DeckDiff;
 import com.deckdiffer.download.DownloadService;
 import com.deckdiffer.frontend.HtmlBuilder;
+import com.deckdiffer.parsing.Deck;
 import com.deckdiffer.parsing.DeckParser;
-import com.deckdiffer.stats.DeckStats;
+
+import org.json.JSONObject;
 
 public class DeckListDifferServer {
 
+    // End-to-end budget for card lookups in one /compare; the page renders with whatever arrived by then
+    private static final long COMPARE_DEADLINE_MS = Long.getLong("deckdiffer.compare.deadlineMs", 4_000L);
+
+    // Budget for one /card fill-in lookup
+    private static final long FILL_IN_DEADLINE_MS = Long.getLong("deckdiffer.compare.fillInDeadlineMs", 3_000L);
+
     public static void main(String[] args) {
 
+        loadCardCatalog();
+        CardDataProvider.startSnapshots();
+        CardDataProvider.startWarmup();
+        CardDataProvider.startPriceRefresher();
+
         port(4567);
         staticFiles.location("/public");
 
@@ -68,6 +94,8 @@ public class DeckListDifferServer {
         // ===== Deck Comparison =====
         post("/compare", (req, res) -> {
 
+            Deadline deadline = Deadline.after(COMPARE_DEADLINE_MS);
+
             String deck1Text= req.queryParams("deck1Text");
             String deck2Text = req.queryParams("deck2Text");
 
@@ -76,87 +104,115 @@ public class DeckListDifferServer {
                 return "<h2>Please enter both deck lists</h2><a href='/'>Go Back</a>";
             }
 
-            // Parse decks and normalize names
-            Map<String, Integer> deck1Map = DeckParser.parseDeck(deck1Text);
-            Map<String, Integer> deck2Map = DeckParser.parseDeck(deck2Text);
-            deck1Map = DeckParser.normalizeNames(deck1Map);
-            deck2Map = DeckParser.normalizeNames(deck2Map);
-
-
-            // Compute comparison
-            Map<String, Integer> deck1Only = DeckComparer.computeDeck1Only(deck1Map, deck2Map);   // in 1 not 2
-            Map<String, Integer> deck2Only = DeckComparer.computeDeck2Only(deck1Map, deck2Map);   // in 2 not 1
-            Map<String, Integer> inBoth = DeckComparer.computeCardsInCommon(deck1Map, deck2Map);
-
-            // Centralize data fetching
-            Set<String> allUniqueNames = new HashSet<>();
-            allUniqueNames.addAll(deck1Only.keySet());
-            allUniqueNames.addAll(deck2Only.keySet());
-            allUniqueNames.addAll(inBoth.keySet());
-
-            CardDataProvider.populateCacheInBatch(allUniqueNames);
-            
-            Map<String, CardData> localCardDataCache = new HashMap<>();
-
-            // populate cardDataCache
-            for (String cardName : allUniqueNames) {
-                // checks global cardDataCache for existence
-                // performs slow fetch if DNE
-                CardData data = CardDataProvider.fetchCardData(cardName);
-                if (data != null) {
-                    localCardDataCache.put(cardName, data);
-                }
-            }
+            // Parse decks into card ids; names are interned once per line
+            CardDictionary dictionary = CardDictionary.forRequest();
+            Deck deck1 = DeckParser.parse(deck1Text, dictionary);
+            Deck deck2 = DeckParser.parse(deck2Text, dictionary);
 
-            // Compute type count changes
-            Map<String, int[]> typeChanges = DeckComparer.computeTypeDifferences(deck1Map, deck2Map);
 
-            Map<String, Integer> deck1Types = new LinkedHashMap<>();
-            Map<String, Integer> deck2Types = new LinkedHashMap<>();
+            // Compute comparison in one pass over both decks: in 1 not 2, in 2 not 1, in both
+            DeckDiff diff = DeckComparer.diff(deck1, deck2);
 
-            for (var e : typeChanges.entrySet()) {
-                deck1Types.put(e.getKey(), e.getValue()[0]);
-                deck2Types.put(e.getKey(), e.getValue()[1]);
+            // Centralize data fetching: every card is resolved once, into a snapshot indexed by id
+            // checks global cardDataCache for existence
+            // performs slow fetch if DNE, but only until the deadline
+            int[] allUniqueIds = diff.ids();
+            CardSnapshot snapshot = CardDataProvider.resolveSnapshot(dictionary, allUniqueIds, deadline);
+
+            List<String> pendingCards = new ArrayList<>();
+            List<String> notFoundCards = new ArrayList<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                CardData data = snapshot.dataAt(i);
+                if (data.isPending()) {
+                    pendingCards.add(snapshot.name(snapshot.idAt(i)));
+                }
+                else if (!data.isFound()) {
+                    notFoundCards.add(snapshot.name(snapshot.idAt(i)));
+                }
+            }
+
+            // Pending cards are rendered as placeholder tiles which the page fills in through /card
+            if (!pendingCards.isEmpty()) {
+                System.err.println(pendingCards.size() + " card(s) still pending at the compare deadline: " + pendingCards);
             }
 
-            // Compute Deck Stats
-            DeckStats.DeckStat stats1 = DeckStats.computeDeckStats(deck1Only, inBoth);
-            DeckStats.DeckStat stats2 = DeckStats.computeDeckStats(deck2Only, inBoth);
+            // "Did you mean" hints for names no card answers to
+            Map<String, List<String>> suggestions = CardDataProvider.suggestNames(snapshot, notFoundCards, 3);
 
-            double deck1DiffCost = stats1.onlyDiffCost;
-            double deck2DiffCost = stats2.onlyDiffCost;
+            // Compute Deck Stats and type counts of both decks once; everything below reads the result
+            ComparisonResult result = ComparisonResult.of(diff, snapshot, suggestions);
 
             // Generate all downloadable files using CardGrouping
             DownloadService.saveFile("deck1_only.txt",
-            CardGrouping.buildNonDetailedTxtFile(deck1Only));
+            CardGrouping.buildNonDetailedTxtFile(result.deck1Only));
 
             DownloadService.saveFile("deck2_only.txt",
-            CardGrouping.buildNonDetailedTxtFile(deck2Only));
+            CardGrouping.buildNonDetailedTxtFile(result.deck2Only));
 
             DownloadService.saveFile("common_cards.txt",
-            CardGrouping.buildNonDetailedTxtFile(inBoth));
-
-            // Detailed
-            DownloadService.saveFile("deck1_only_detailed.txt",
-            CardGrouping.buildDetailedTxtFile(deck1Only, localCardDataCache));
-
-            DownloadService.saveFile("deck2_only_detailed.txt",
-            CardGrouping.buildDetailedTxtFile(deck2Only, localCardDataCache));
-
-            DownloadService.saveFile("common_cards_detailed.txt",
-            CardGrouping.buildDetailedTxtFile(inBoth, localCardDataCache));
-
-            return HtmlBuilder.buildResultsPage(
-                deck1Only,
-                deck2Only,
-                inBoth,
-                deck1Types,
-                deck2Types,
-                deck1DiffCost,
-                deck2DiffCost,
-                localCardDataCache
-            );
+            CardGrouping.buildNonDetailedTxtFile(result.common));
+
+            // Detailed; built when downloaded, so cards still pending at the deadline are grouped
+            // by the data their late lookups have put in the cache since
+            DownloadService.saveFile("deck1_only_detailed.txt", () ->
+            CardGrouping.buildDetailedTxtFile(result.deck1Only, CardDataProvider.settle(result.snapshot)));
+
+            DownloadService.saveFile("deck2_only_detailed.txt", () ->
+            CardGrouping.buildDetailedTxtFile(result.deck2Only, CardDataProvider.settle(result.snapshot)));
+
+            DownloadService.saveFile("common_cards_detailed.txt", () ->
+            CardGrouping.buildDetailedTxtFile(result.common, CardDataProvider.settle(result.snapshot)));
+
+            return HtmlBuilder.buildResultsPage(result);
         }); 
+        // ===== Single Card Lookup (fills in cards that were pending when a comparison rendered) =====
+        get("/card", (req, res) -> {
+            String cardName = req.queryParams("name");
+            res.type("application/json");
+
+            if (cardName == null || cardName.isBlank()) {
+                res.status(400);
+                return new JSONObject().put("error", "Missing card name").toString();
+            }
+
+            CardData data = CardDataProvider.fetchCardData(cardName, Deadline.after(FILL_IN_DEADLINE_MS));
+
+            // 202: still not available, the page may ask again later
+            if (data.isPending()) {
+                res.status(202);
+            }
+
+            return new JSONObject()
+                .put("name", cardName)
+                .put("found", data.isFound())
+                .put("pending", data.isPending())
+                .put("price", data.price)
+                .put("priceStale", data.priceStale)
+                .put("priceAsOf", data.priceAsOf)
+                .put("imageUrl", data.imageUrl)
+                .put("scryfallUrl", data.scryfallUrl)
+                .toString();
+        });
+
+        // ===== Readiness (503 until the startup cache warm-up reaches its coverage threshold) =====
+        get("/ready", (req, res) -> {
+            res.type("text/plain");
+            if (!CardDataProvider.isReady()) {
+                res.status(503);
+                return "warming up: " + CardDataProvider.warmupStatus();
+            }
+            return "ready: " + CardDataProvider.warmupStatus();
+        });
+
+        // ===== Card Cache Stats =====
+        get("/cache/stats", (req, res) -> {
+            res.type("text/plain");
+            return CardDataProvider.cacheStats()
+                + "\nPrice refresher: " + CardDataProvider.refresherStats()
+                + "\nCard catalog: " + CardDataProvider.catalogStats()
+                + "\nScryfall circuit breaker: " + ScryfallClient.breakerState();
+        });
+
         // ===== Download Route =====
         get("/download/:filename", (req, res) -> {
             String fileName = req.params(":filename") + ".txt";
@@ -171,4 +227,27 @@ public class DeckListDifferServer {
             return DownloadService.getFile(fileName);
         });
     }
+
+    /**
+     * Loads the local card catalog named by the "deckdiffer.catalog" system property, if any.
+     * Without a catalog, every card is looked up on Scryfall as before.
+     */
+    private static void loadCardCatalog() {
+        String catalogPath = System.getProperty("deckdiffer.catalog");
+        if (catalogPath == null || catalogPath.isBlank()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            CardCatalog catalog = CardCatalog.open(Path.of(catalogPath));
+            CardDataProvider.installCatalog(catalog);
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Loaded " + catalog.size() + " cards from " + catalogPath + " in " + elapsedMs + " ms");
+        }
+        catch (IOException e) {
+            System.err.println("Failed to load card catalog " + catalogPath + ": " + e.getMessage());
+        }
+    }
 }
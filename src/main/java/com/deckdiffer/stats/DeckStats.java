@@ -7,7 +7,10 @@ package com.deckdiffer.stats;
 import java.util.*;
 
 import com.deckdiffer.cards.CardData;
-import com.deckdiffer.cards.CardDataProvider;
+import com.deckdiffer.cards.CardDictionary;
+import com.deckdiffer.cards.CardSnapshot;
+import com.deckdiffer.logic.DeckDiff;
+import com.deckdiffer.parsing.Deck;
 
 public class DeckStats {
 
@@ -16,7 +19,7 @@ public class DeckStats {
     // Nested static class that bundles the complete set of calculated statistics
     public static class DeckStat{
         // Comlete deck list
-        public final Map<String, Integer> fullDeck;
+        public final Deck fullDeck;
 
         // Total cost of all cards in fullDeck in USD (TCGPlayer)
         public final double totalCost;
@@ -27,11 +30,26 @@ public class DeckStats {
         // Nested object containing all calculated mana/CMC stats
         public final ManaStats manaStats;
 
-        public DeckStat(Map<String, Integer> fullDeck, double totalCost, double onlyDiffCost, ManaStats manaStats){
+        // Primary card type -> number of cards of that type in fullDeck
+        public final Map<String, Integer> typeCounts;
+
+        public DeckStat(Deck fullDeck, double totalCost, double onlyDiffCost, ManaStats manaStats, Map<String, Integer> typeCounts){
             this.fullDeck = fullDeck;
             this.totalCost = totalCost;
             this.onlyDiffCost = onlyDiffCost;
             this.manaStats = manaStats;
+            this.typeCounts = typeCounts;
+        }
+    }
+
+    // Nested static class bundling the stats of both decks of a comparison
+    public static class ComparisonStats{
+        public final DeckStat deck1;
+        public final DeckStat deck2;
+
+        public ComparisonStats(DeckStat deck1, DeckStat deck2){
+            this.deck1 = deck1;
+            this.deck2 = deck2;
         }
     }
 
@@ -68,56 +86,88 @@ public class DeckStats {
     }
 
     /**
-     * Computes all necessary deck statistics (cost, CMC, pips) in a single pass
-     * @param only - Map of cards and their counts unique to the difference set.
-     * @param common - Map of cards and their counts common to both original decks.
-     * @return A DeckStat object containing all calculated results.
+     * Computes the statistics (cost, CMC, pips, type counts) of both decks of a comparison in one pass
+     * over the diff. The diff and the snapshot list the same cards in the same (id) order, so each card's
+     * data is read by position; no card is looked up in the cache or the snapshot index.
+     * Cards missing from the snapshot or still pending are left out of the totals.
+     * @param diff - result of DeckComparer.diff for the two decks
+     * @param snapshot - card data resolved for diff.ids()
+     * @return ComparisonStats holding a DeckStat per deck
      */
-    public static DeckStat computeDeckStats(Map<String, Integer> only, Map<String, Integer> common){
+    public static ComparisonStats computeComparisonStats(DeckDiff diff, CardSnapshot snapshot){
+
+        StatAccumulator deck1 = new StatAccumulator(diff.deck1Only.dictionary());
+        StatAccumulator deck2 = new StatAccumulator(diff.deck1Only.dictionary());
+
+        for (int i = 0; i < diff.size(); i++){
+            int card = diff.idAt(i);
+            int count1 = diff.deck1CountAt(i);
+            int count2 = diff.deck2CountAt(i);
+
+            // Same position in the snapshot unless it was resolved for a different set of cards
+            CardData data = (i < snapshot.size() && snapshot.idAt(i) == card) ? snapshot.dataAt(i) : snapshot.get(card);
+
+            deck1.add(card, count1, Math.max(0, count1 - count2), data);
+            deck2.add(card, count2, Math.max(0, count2 - count1), data);
+        }
+
+        return new ComparisonStats(deck1.build(), deck2.build());
+    }
 
-        Map<String, Integer> fullDeck = buildFullDeck(only, common);
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    // Running totals of one deck's statistics, fed one card at a time in ascending id order
+    private static class StatAccumulator{
+        private final Deck.Builder fullDeck;
 
         // Monetary cost tracking
-        double totalCost = 0.0;
-        double onlyDiffCost = 0.0;
+        private double totalCost = 0.0;
+        private double onlyDiffCost = 0.0;
 
         // CMC related calculations tracking
-        double totalCMC = 0.0;
-        int totalNonLandCards = 0;
+        private double totalCMC = 0.0;
+        private int totalNonLandCards = 0;
 
         // For mana pip tracking (WUBRGC). Initialize all to zero.
-         Map<String, Integer> totalPips= new HashMap<>(Map.of(
+        private final Map<String, Integer> totalPips = new HashMap<>(Map.of(
             "C", 0, "W", 0, "U", 0, "B", 0, "R", 0, "G", 0
         ));
 
-        Map<String, CardData> cache = new HashMap<>();
+        // Ex: Creature -> 25, Land -> 35, etc...
+        private final Map<String, Integer> typeCounts = new TreeMap<>();
 
-        for (var entry: fullDeck.entrySet()){
-            String card = entry.getKey();
-            int count = entry.getValue();
+        StatAccumulator(CardDictionary dictionary){
+            this.fullDeck = new Deck.Builder(dictionary);
+        }
+
+        /**
+         * @param card - card id
+         * @param count - copies of the card in the full deck; 0 if the deck lacks it
+         * @param onlyCount - copies of the card in the difference set
+         * @param data - the card's data, may be null
+         */
+        void add(int card, int count, int onlyCount, CardData data){
             if (count <= 0){
-                continue;
+                return;
             }
+            fullDeck.add(card, count);
 
-            // Retrieve card data
-            CardData data = cache.computeIfAbsent(
-                card.toLowerCase(),
-                k -> CardDataProvider.fetchCardData(card)
-            );
-
-            // Skip if card data not found
-            if (data == null){
-                continue;
+            // Skip if card data not found, or not fetched in time
+            if (data == null || data.isPending()){
+                return;
             }
 
+            typeCounts.merge(data.primaryType, count, Integer::sum);
+
             // Cost Calculations
 
             // Add to total deck value
             totalCost += data.price * count;
-            
+
             // If card is present in difference set (only), add its cost to difference value.
-            if (only.containsKey(card)){
-                int onlyCount = only.getOrDefault(card, 0);
+            if (onlyCount > 0){
                 onlyDiffCost += data.price * onlyCount;
             }
 
@@ -125,10 +175,10 @@ public class DeckStats {
             // CMC Calculations
 
             // Count only non-land permanents for average cmc cost calculations
-            if (data != null && data.types.contains("Land")){
-                continue;
+            if (data.types.contains("Land")){
+                return;
             }
-            
+
             // Skip lands for average cmc calcs
             totalCMC += data.cmc * count;
             totalNonLandCards += count;
@@ -149,45 +199,10 @@ public class DeckStats {
             }
         }
 
-        // Build final results and return
-        ManaStats manaStats = new ManaStats(totalCMC, totalNonLandCards, totalPips);
-        return new DeckStat(fullDeck, totalCost, onlyDiffCost, manaStats);
-    }
-
-     /**
-     * @param cardMap
-     * @return map of primary card types to quantity
-     */
-    public static Map<String, Integer> computeTypeCounts(Map<String, Integer> cardMap){
-
-        // Ex: Creature -> 25, Land -> 35, etc...
-        Map<String, Integer> typeCounts = new TreeMap<>();
-        for (Map.Entry<String, Integer> entry : cardMap.entrySet()){
-            String card = entry.getKey();
-            int count = entry.getValue();
-
-            String primaryType = CardDataProvider.fetchCardData(card).primaryType;
-
-            typeCounts.put(primaryType, typeCounts.getOrDefault(primaryType,0) + count);
-        }
-
-        return typeCounts;
-    }
-
-    /**
-     * Merges two partial deck lists (cards unique to one deck and cards common to both) 
-     * into a single, complete deck list with aggregated counts.
-     * 
-     * @param only - Map of cards and their counts unique to the difference set.
-     * @param common - Map of cards and their counts common to both original decks.
-     * @return fullDeck - New Map<String, Integer> containing all cards and their merged quantity.
-     */
-    private static Map<String, Integer> buildFullDeck(Map<String, Integer> only, Map<String, Integer> common){
-        Map<String, Integer> fullDeck = new LinkedHashMap<>(only);
-        // Since I had already implemented methods to extract only and common, just merge them ...
-        for (var entry: common.entrySet()){
-            fullDeck.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        // Build final results
+        DeckStat build(){
+            ManaStats manaStats = new ManaStats(totalCMC, totalNonLandCards, Collections.unmodifiableMap(totalPips));
+            return new DeckStat(fullDeck.build(), totalCost, onlyDiffCost, manaStats, Collections.unmodifiableMap(typeCounts));
         }
-        return fullDeck;
     }
 }
@@ -0,0 +1,165 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryCardCatalogTest {
+
+    private static final String BULK = "["
+        + "{\"name\": \"Lightning Bolt\", \"lang\": \"en\", \"type_line\": \"Instant\", \"cmc\": 1.0,"
+        + " \"mana_cost\": \"{R}\", \"color_identity\": [\"R\"], \"prices\": {\"usd\": \"1.50\"},"
+        + " \"image_uris\": {\"normal\": \"https://img/bolt.jpg\"}, \"scryfall_uri\": \"https://scryfall/bolt\"},"
+        + "{\"name\": \"Fire // Ice\", \"lang\": \"en\", \"type_line\": \"Instant // Instant\", \"cmc\": 4.0,"
+        + " \"color_identity\": [\"U\", \"R\"], \"prices\": {\"usd\": \"0.25\"},"
+        + " \"card_faces\": [{\"name\": \"Fire\", \"type_line\": \"Instant\", \"mana_cost\": \"{1}{R}\"},"
+        + " {\"name\": \"Ice\", \"type_line\": \"Instant\", \"mana_cost\": \"{1}{U}\"}],"
+        + " \"scryfall_uri\": \"https://scryfall/fire-ice\"},"
+        + "{\"name\": \"Æther Vial\", \"lang\": \"en\", \"type_line\": \"Artifact\", \"cmc\": 1.0,"
+        + " \"mana_cost\": \"{1}\", \"color_identity\": [], \"prices\": {\"usd\": null}},"
+        + "{\"name\": \"Sol Ring\", \"lang\": \"en\", \"type_line\": \"Artifact\", \"cmc\": 1.0,"
+        + " \"mana_cost\": \"{1}\", \"color_identity\": [], \"prices\": {\"usd\": \"2.00\"}},"
+        + "{\"name\": \"Sol Ring\", \"lang\": \"de\", \"type_line\": \"Artefakt\", \"cmc\": 1.0,"
+        + " \"mana_cost\": \"{1}\", \"color_identity\": [], \"prices\": {\"usd\": \"9.00\"}}"
+        + "]";
+
+    // When the test bulk file was "downloaded"
+    private static final long BULK_WRITTEN_AT = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private BulkCardCatalog bulk;
+    private BinaryCardCatalog binary;
+
+    @BeforeEach
+    void compileAndOpen() throws IOException {
+        Path bulkFile = dir.resolve("bulk.json");
+        Files.writeString(bulkFile, BULK, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(bulkFile, FileTime.fromMillis(BULK_WRITTEN_AT));
+
+        bulk = BulkCardCatalog.load(bulkFile);
+        Path compiled = dir.resolve("cards.bin");
+        CardCatalogCompiler.compile(bulk, compiled);
+        binary = BinaryCardCatalog.open(compiled);
+    }
+
+    @Test
+    void keepsEveryCard() {
+        assertEquals(4, bulk.size());
+        assertEquals(bulk.size(), binary.size());
+    }
+
+    @Test
+    void decodesTheSameFieldsAsTheBulkCatalog() {
+        for (String name : List.of("Lightning Bolt", "Fire // Ice", "Æther Vial", "Sol Ring")) {
+            CardData expected = bulk.lookup(name);
+            CardData actual = binary.lookup(name);
+            assertNotNull(actual, name);
+
+            assertEquals(expected.name, actual.name, name);
+            assertEquals(expected.price, actual.price, 1e-9, name);
+            assertEquals(expected.cmc, actual.cmc, 1e-6, name);
+            assertEquals(expected.primaryType, actual.primaryType, name);
+            assertEquals(new HashSet<>(expected.types), new HashSet<>(actual.types), name);
+            assertEquals(new HashSet<>(expected.colors), new HashSet<>(actual.colors), name);
+            assertEquals(expected.colorCategory, actual.colorCategory, name);
+            assertEquals(expected.imageUrl, actual.imageUrl, name);
+            assertEquals(expected.scryfallUrl, actual.scryfallUrl, name);
+            assertEquals(nonZero(expected.pipCounts), nonZero(actual.pipCounts), name);
+        }
+    }
+
+    @Test
+    void stampsPricesWithTheBulkFileTime() {
+        assertEquals(BULK_WRITTEN_AT, bulk.pricesAsOf());
+        assertEquals(BULK_WRITTEN_AT, binary.pricesAsOf());
+        assertEquals(BULK_WRITTEN_AT, bulk.lookup("Sol Ring").priceAsOf);
+        assertEquals(BULK_WRITTEN_AT, binary.lookup("Fire").priceAsOf);
+        assertTrue(binary.lookup("Sol Ring").priceAgeMillis() > 0);
+    }
+
+    @Test
+    void looksUpCaseInsensitivelyAndByFaceName() {
+        assertEquals("Lightning Bolt", binary.lookup("lightning BOLT").name);
+        assertEquals("Fire // Ice", binary.lookup("Fire").name);
+        assertEquals("Fire // Ice", binary.lookup("ice").name);
+    }
+
+    @Test
+    void onlyEnglishPrintingsAreIndexed() {
+        assertEquals(2.00, binary.lookup("Sol Ring").price, 1e-9);
+    }
+
+    @Test
+    void unknownNamesMiss() {
+        assertNull(binary.lookup("Lightning Blot"));
+        assertNull(binary.lookup(""));
+        assertNull(binary.lookup(null));
+    }
+
+    @Test
+    void visitsTheSameLookupKeys() {
+        Set<String> bulkKeys = new HashSet<>();
+        Set<String> binaryKeys = new HashSet<>();
+        bulk.forEachName(bulkKeys::add);
+        binary.forEachName(binaryKeys::add);
+
+        assertEquals(bulkKeys, binaryKeys);
+        assertTrue(binaryKeys.contains("fire"));
+    }
+
+    @Test
+    void keysOfAReplacedPrintingFollowTheReplacement() throws IOException {
+        // The unpriced first printing lists faces the priced one that replaces it does not
+        Path bulkFile = dir.resolve("printings.json");
+        Files.writeString(bulkFile, "["
+            + "{\"name\": \"Brazen Borrower // Petty Theft\", \"lang\": \"en\", \"type_line\": \"Creature // Instant\","
+            + " \"prices\": {\"usd\": null}, \"card_faces\": [{\"name\": \"Brazen Borrower\"}, {\"name\": \"Petty Theft\"}]},"
+            + "{\"name\": \"Brazen Borrower // Petty Theft\", \"lang\": \"en\", \"type_line\": \"Creature // Instant\","
+            + " \"prices\": {\"usd\": \"5.00\"}}"
+            + "]", StandardCharsets.UTF_8);
+
+        BulkCardCatalog printings = BulkCardCatalog.load(bulkFile);
+        Path compiled = dir.resolve("printings.bin");
+        CardCatalogCompiler.compile(printings, compiled);
+        BinaryCardCatalog catalog = BinaryCardCatalog.open(compiled);
+
+        assertEquals(1, catalog.size());
+        assertEquals(5.00, printings.lookup("Petty Theft").price, 1e-9);
+        assertEquals(5.00, catalog.lookup("Petty Theft").price, 1e-9);
+    }
+
+    @Test
+    void catalogOpenDetectsTheBinaryFormat() throws IOException {
+        assertInstanceOf(BinaryCardCatalog.class, CardCatalog.open(dir.resolve("cards.bin")));
+        assertInstanceOf(BulkCardCatalog.class, CardCatalog.open(dir.resolve("bulk.json")));
+    }
+
+    @Test
+    void rejectsAFileWithoutTheMagicNumber() throws IOException {
+        Path bogus = dir.resolve("bogus.bin");
+        Files.write(bogus, new byte[64]);
+
+        assertThrows(IOException.class, () -> BinaryCardCatalog.open(bogus));
+    }
+
+    private static Map<String, Integer> nonZero(Map<String, Integer> pips) {
+        Map<String, Integer> result = new TreeMap<>(pips);
+        result.values().removeIf(count -> count == 0);
+        return result;
+    }
+}
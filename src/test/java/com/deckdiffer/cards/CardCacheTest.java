@@ -0,0 +1,77 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CardCacheTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    @Test
+    void getCountsAsAUse() {
+        CardCache cache = cacheOf("a", "b");
+
+        assertNotNull(cache.get("a"));
+        cache.put("c", CardData.placeholder());
+
+        assertEquals(List.of("a", "c"), keys(cache));
+    }
+
+    @Test
+    void peeksAndRefreshesKeepTheEvictionOrder() {
+        CardCache cache = cacheOf("a", "b");
+        long now = System.currentTimeMillis();
+
+        assertTrue(cache.containsFresh("a"));
+        assertTrue(cache.fetchedAt("a") > 0);
+        assertTrue(cache.replace("a", CardData.placeholder(), now + 1));
+        assertEquals(List.of("a", "b"), keys(cache));
+
+        cache.put("c", CardData.placeholder());
+
+        assertEquals(List.of("b", "c"), keys(cache));
+        assertFalse(cache.containsFresh("a"));
+        assertEquals(-1L, cache.fetchedAt("a"));
+        assertFalse(cache.replace("a", CardData.placeholder(), now + 2), "evicted entries are not brought back");
+    }
+
+    @Test
+    void replaceUpdatesTheEntryInPlace() {
+        CardCache cache = new CardCache(2, 0L, HOUR_MS);
+        long fetchedAt = System.currentTimeMillis() - 2 * HOUR_MS;
+        cache.put("a", CardData.placeholder(), fetchedAt);
+        assertFalse(cache.containsFresh("a"));
+
+        assertFalse(cache.replace("a", CardData.placeholder(), fetchedAt - 1), "older data is not swapped in");
+        assertTrue(cache.replace("a", CardData.placeholder(), System.currentTimeMillis()));
+
+        assertTrue(cache.containsFresh("a"));
+        assertNotNull(cache.get("a"));
+        assertEquals(cache.fetchedAt("a"), cache.get("a").priceAsOf);
+    }
+
+    @Test
+    void stalePricesMissButStayAvailable() {
+        CardCache cache = new CardCache(2, 0L, HOUR_MS);
+        cache.put("a", CardData.placeholder(), System.currentTimeMillis() - 2 * HOUR_MS);
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.getStale("a"));
+        assertEquals(1, cache.stats().misses);
+    }
+
+    private static CardCache cacheOf(String... keys) {
+        CardCache cache = new CardCache(keys.length, 0L, HOUR_MS);
+        for (String key : keys) {
+            cache.put(key, CardData.placeholder());
+        }
+        return cache;
+    }
+
+    private static List<String> keys(CardCache cache) {
+        return cache.entries().stream().map(card -> card.key).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CardDataProviderTest {
+
+    private static final String BULK = "["
+        + "{\"name\": \"Lightning Bolt\", \"lang\": \"en\", \"type_line\": \"Instant\", \"cmc\": 1.0,"
+        + " \"mana_cost\": \"{R}\", \"color_identity\": [\"R\"], \"prices\": {\"usd\": \"1.50\"}},"
+        + "{\"name\": \"Counterspell\", \"lang\": \"en\", \"type_line\": \"Instant\", \"cmc\": 2.0,"
+        + " \"mana_cost\": \"{U}{U}\", \"color_identity\": [\"U\"], \"prices\": {\"usd\": \"1.00\"}}"
+        + "]";
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void installFreshCatalog() throws IOException {
+        Path bulkFile = dir.resolve("bulk.json");
+        Files.writeString(bulkFile, BULK, StandardCharsets.UTF_8);
+        CardDataProvider.installCatalog(BulkCardCatalog.load(bulkFile));
+        CardDataProvider.awaitCatalogIndexes();
+    }
+
+    @AfterEach
+    void removeCatalog() {
+        CardDataProvider.installCatalog(null);
+    }
+
+    @Test
+    void servesCatalogCardsAndCorrectsCloseTypos() {
+        assertEquals("Lightning Bolt", CardDataProvider.fetchCardData("lightning bolt", Deadline.none()).name);
+        assertEquals("Counterspell", CardDataProvider.fetchCardData("Counterspel", Deadline.none()).name);
+    }
+
+    @Test
+    void namesNoCardAnswersToAreNotFoundWithoutALookup() {
+        String junk = "Sideboard notes: qqzx";
+
+        CardData data = CardDataProvider.fetchCardData(junk, Deadline.none());
+
+        assertFalse(data.isFound());
+        assertFalse(data.isPending());
+        // Remembered as not found, rather than as a failed Scryfall call
+        assertTrue(CardDataProvider.isWarm(junk));
+    }
+}
@@ -0,0 +1,45 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CardDictionaryTest {
+
+    private static final CardDictionary DICTIONARY = CardDictionary.forRequest();
+
+    @Test
+    void sameNameGetsSameId() {
+        int id = DICTIONARY.idOf("Counterspell");
+
+        assertEquals(id, DICTIONARY.idOf("Counterspell"));
+        assertEquals("Counterspell", DICTIONARY.name(id));
+        assertEquals("counterspell", DICTIONARY.lookupKey(id));
+    }
+
+    @Test
+    void capitalizationsShareTheFirstSpellingOfTheComparison() {
+        int id = DICTIONARY.idOf("Brainstorm");
+
+        assertEquals(id, DICTIONARY.idOf("brainstorm"));
+        assertEquals(id, DICTIONARY.idOf("BRAINSTORM"));
+        assertEquals("Brainstorm", DICTIONARY.name(id));
+    }
+
+    @Test
+    void eachComparisonShowsItsOwnSpelling() {
+        CardDictionary first = CardDictionary.forRequest();
+        CardDictionary second = CardDictionary.forRequest();
+
+        int id = first.idOf("SWORDS TO PLOWSHARES");
+
+        assertEquals(id, second.idOf("swords to plowshares"));
+        assertEquals("SWORDS TO PLOWSHARES", first.name(id));
+        assertEquals("swords to plowshares", second.name(id));
+    }
+
+    @Test
+    void differentNamesGetDifferentIds() {
+        assertNotEquals(DICTIONARY.idOf("Ponder"), DICTIONARY.idOf("Preordain"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MS = 50L;
+
+    @Test
+    void staysClosedBelowThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MS);
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(2, OPEN_MS);
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void opensAtThresholdAndRefusesCalls() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void letsOneTrialThroughAfterOpenPeriod() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MS + 20);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.allowRequest(), "only one trial call at a time");
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    void successfulTrialCloses() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MS + 20);
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MS + 20);
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void releasedTrialLetsTheNextCallerTry() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(OPEN_MS + 20);
+        assertTrue(breaker.allowRequest());
+
+        breaker.releaseTrial();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void releaseTrialDoesNotCloseAnOpenBreaker() {
+        CircuitBreaker breaker = openBreaker();
+
+        breaker.releaseTrial();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void openForHoldsAtLeastTheGivenTime() {
+        CircuitBreaker breaker = new CircuitBreaker(5, OPEN_MS);
+        breaker.openFor(60_000L);
+
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(0, OPEN_MS));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker(1, 0L));
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(2, OPEN_MS);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        return breaker;
+    }
+}
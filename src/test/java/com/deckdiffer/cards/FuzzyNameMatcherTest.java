@@ -0,0 +1,48 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class FuzzyNameMatcherTest {
+
+    private static final FuzzyNameMatcher MATCHER = FuzzyNameMatcher.build(List.of(
+        "Lightning Bolt", "Lightning Helix", "Sol Ring", "Solemn Simulacrum", "Æther Vial", "Counterspell"));
+
+    @Test
+    void ranksTheClosestNameFirst() {
+        List<FuzzyNameMatcher.Suggestion> matches = MATCHER.suggest("Lightnig Bolt", 3, 0.6);
+
+        assertFalse(matches.isEmpty());
+        assertEquals("lightning bolt", matches.get(0).name);
+        assertTrue(matches.get(0).score >= 0.9);
+    }
+
+    @Test
+    void comparesNormalizedSpellings() {
+        assertEquals(1.0, MATCHER.suggest("AETHER VIAL", 1, 0.9).get(0).score);
+    }
+
+    @Test
+    void repeatedQueriesOnOneThreadGiveTheSameResults() {
+        // The per-thread scratch buffer must be left zeroed by every query
+        List<FuzzyNameMatcher.Suggestion> first = MATCHER.suggest("Sol Rnig", 3, 0.5);
+        MATCHER.suggest("Counterspel", 3, 0.5);
+        MATCHER.suggest("Solemn", 3, 0.0);
+        List<FuzzyNameMatcher.Suggestion> again = MATCHER.suggest("Sol Rnig", 3, 0.5);
+
+        assertEquals(first.size(), again.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).name, again.get(i).name);
+            assertEquals(first.get(i).score, again.get(i).score);
+        }
+    }
+
+    @Test
+    void unrelatedNamesHaveNoSuggestions() {
+        assertTrue(MATCHER.suggest("Zzzzqx", 3, 0.6).isEmpty());
+        assertTrue(MATCHER.suggest("", 3, 0.6).isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JsonPullReaderTest {
+
+    private static final String[] FIELDS = { "name", "cmc", "prices" };
+
+    @Test
+    void readsSelectedFieldsAndSkipsTheRest() throws IOException {
+        JsonPullReader reader = reader(
+            "{\"id\": 7, \"name\": \"Fire \\u002F\\/ Ice\", \"legal\": [true, false, null, {\"x\": [1, 2]}],"
+            + " \"cmc\": 2.0, \"prices\": {\"usd\": \"1.25\"}}");
+
+        String name = null;
+        double cmc = -1;
+        String usd = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(FIELDS)) {
+                case 0:
+                    name = reader.nextString();
+                    break;
+                case 1:
+                    cmc = reader.nextDouble(-1);
+                    break;
+                case 2:
+                    reader.beginObject();
+                    reader.selectName(FIELDS);
+                    usd = reader.nextString();
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        assertEquals("Fire // Ice", name);
+        assertEquals(2.0, cmc);
+        assertEquals("1.25", usd);
+        assertEquals(JsonPullReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void readsNullsNumbersAndEmptyContainers() throws IOException {
+        JsonPullReader reader = reader("[null, -1.5e2, \"x\", [], {}]");
+
+        reader.beginArray();
+        assertNull(reader.nextString());
+        assertEquals(-150.0, reader.nextDouble(0));
+        assertEquals(7.0, reader.nextDouble(7.0), "an unparseable string falls back");
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.beginObject();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endArray();
+        assertEquals(JsonPullReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void capturesTheRawTextOfAnObject() throws IOException {
+        String card = "{\"name\": \"Opt\", \"extra\": [1, {\"a\": \"}\"}]}";
+        JsonPullReader reader = reader("[" + card + ", 1]");
+
+        reader.beginArray();
+        reader.startCapture();
+        reader.skipValue();
+        assertEquals(card, reader.endCapture());
+        assertEquals(1.0, reader.nextDouble(0));
+        reader.endArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "[",
+        "{",
+        "{\"data\":[",
+        "{\"data\":[1,",
+        "{\"name\"",
+        "{\"name\":",
+        "{\"name\":\"Sol R",
+        "\"abc\\",
+        "\"\\u00",
+        "tru",
+        "[1, 2",
+    })
+    void truncatedInputFailsWithIOException(String json) {
+        assertThrows(IOException.class, () -> readFully(json));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[1 2]",
+        "[1,]",
+        "{\"a\" 1}",
+        "{a: 1}",
+        "{\"a\": 1,}",
+        "{\"a\": 1]",
+        "nul",
+        "trve",
+        "@",
+        "\"\\uZZZZ\"",
+        "{\"a\": 1}}",
+        "[] []",
+    })
+    void malformedInputFailsWithIOException(String json) {
+        assertThrows(IOException.class, () -> readFully(json));
+    }
+
+    @Test
+    void expectingTheWrongTokenFails() {
+        assertThrows(IOException.class, () -> reader("[1]").beginObject());
+        assertThrows(IOException.class, () -> reader("{}").beginArray());
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    private static JsonPullReader reader(String json) {
+        return new JsonPullReader(new StringReader(json));
+    }
+
+    /**
+     * Reads one value, decoding its strings, and then expects the end of the document
+     */
+    private static void readFully(String json) throws IOException {
+        JsonPullReader reader = reader(json);
+        readValue(reader);
+        if (reader.peek() != JsonPullReader.Token.END_DOCUMENT) {
+            fail("expected end of document");
+        }
+    }
+
+    private static void readValue(JsonPullReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    reader.selectName(FIELDS);
+                    readValue(reader);
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readValue(reader);
+                }
+                reader.endArray();
+                break;
+            case STRING:
+            case NUMBER:
+            case NULL:
+                reader.nextString();
+                break;
+            default:
+                reader.skipValue();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class ScryfallBatchFetcherTest {
+
+    @Test
+    void matchesByCanonicalAndFaceName() {
+        BatchResolution resolution = ScryfallBatchFetcher.matchResponse(
+            List.of("Lightning Bolt", "Fire"),
+            page(List.of(card("Lightning Bolt"), card("Fire // Ice", "Fire", "Ice")), List.of()));
+
+        assertEquals(Set.of("Lightning Bolt", "Fire"), resolution.found.keySet());
+        assertEquals("Fire // Ice", resolution.aliases.get("Fire"));
+        assertFalse(resolution.aliases.containsKey("Lightning Bolt"));
+        assertTrue(resolution.notFound.isEmpty());
+    }
+
+    @Test
+    void resolvesEverySpellingThatNormalizesAlike() {
+        BatchResolution resolution = ScryfallBatchFetcher.matchResponse(
+            List.of("Æther Vial", "Aether Vial", "aether vial"),
+            page(List.of(card("Aether Vial")), List.of()));
+
+        assertEquals(Set.of("Æther Vial", "Aether Vial", "aether vial"), resolution.found.keySet());
+        assertEquals("Aether Vial", resolution.aliases.get("Æther Vial"));
+        assertEquals("Aether Vial", resolution.aliases.get("aether vial"));
+        assertTrue(resolution.notFound.isEmpty());
+        assertTrue(resolution.failed.isEmpty());
+    }
+
+    @Test
+    void reportsListedAndUnmatchedNamesAsNotFound() {
+        BatchResolution resolution = ScryfallBatchFetcher.matchResponse(
+            List.of("Lightnig Bolt", "LIGHTNIG BOLT", "Sol Rnig"),
+            page(List.of(), List.of("Lightnig Bolt")));
+
+        assertTrue(resolution.found.isEmpty());
+        assertEquals(Set.of("Lightnig Bolt", "LIGHTNIG BOLT", "Sol Rnig"), Set.copyOf(resolution.notFound));
+    }
+
+    private static ScryfallCardDecoder.DecodedCard card(String name, String... faceNames) {
+        return new ScryfallCardDecoder.DecodedCard(name, List.of(faceNames), "en", CardData.placeholder());
+    }
+
+    private static ScryfallCardDecoder.CollectionPage page(List<ScryfallCardDecoder.DecodedCard> cards, List<String> notFound) {
+        return new ScryfallCardDecoder.CollectionPage(cards, notFound);
+    }
+}
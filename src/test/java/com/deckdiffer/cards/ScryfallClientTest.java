@@ -0,0 +1,52 @@
+package com.deckdiffer.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class ScryfallClientTest {
+
+    @Test
+    void stalledBodyIsAbortedWhenItsTimeRunsOut() {
+        InputStream body = new ScryfallClient.TimedBody(new StalledStream(), 50L);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(HttpTimeoutException.class, body::read);
+        });
+    }
+
+    @Test
+    void bodyReadInTimeIsUntouched() throws IOException {
+        try (InputStream body = new ScryfallClient.TimedBody(new ByteArrayInputStream(new byte[] {1, 2, 3}), 10_000L)) {
+            assertArrayEquals(new byte[] {1, 2, 3}, body.readAllBytes());
+        }
+    }
+
+    // Blocks every read until closed, like a connection that stopped sending mid-body
+    private static final class StalledStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closed.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
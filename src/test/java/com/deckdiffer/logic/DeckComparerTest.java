@@ -0,0 +1,132 @@
+package com.deckdiffer.logic;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.deckdiffer.cards.CardDictionary;
+import com.deckdiffer.parsing.Deck;
+
+class DeckComparerTest {
+
+    private static final CardDictionary DICTIONARY = CardDictionary.forRequest();
+
+    private static final int SOL_RING = DICTIONARY.idOf("Sol Ring");
+    private static final int ISLAND = DICTIONARY.idOf("Island");
+    private static final int MOUNTAIN = DICTIONARY.idOf("Mountain");
+    private static final int PLAINS = DICTIONARY.idOf("Plains");
+
+    @Test
+    void splitsCardsIntoThreePartitions() {
+        Deck deck1 = deck(SOL_RING, 1, ISLAND, 10, MOUNTAIN, 12);
+        Deck deck2 = deck(SOL_RING, 1, ISLAND, 9, PLAINS, 3);
+
+        DeckDiff diff = DeckComparer.diff(deck1, deck2);
+
+        assertDeck(diff.deck1Only, ISLAND, 1, MOUNTAIN, 12);
+        assertDeck(diff.deck2Only, PLAINS, 3);
+        assertDeck(diff.common, SOL_RING, 1, ISLAND, 9);
+    }
+
+    @Test
+    void tracksEachCardsCountsAndDelta() {
+        Deck deck1 = deck(SOL_RING, 1, ISLAND, 10, MOUNTAIN, 12);
+        Deck deck2 = deck(SOL_RING, 1, ISLAND, 9, PLAINS, 3);
+
+        DeckDiff diff = DeckComparer.diff(deck1, deck2);
+
+        assertEquals(4, diff.size());
+        assertEquals(0, diff.delta(SOL_RING));
+        assertEquals(-1, diff.delta(ISLAND));
+        assertEquals(-12, diff.delta(MOUNTAIN));
+        assertEquals(3, diff.delta(PLAINS));
+        assertEquals(0, diff.delta(DICTIONARY.idOf("Forest")));
+
+        for (int i = 0; i < diff.size(); i++) {
+            int card = diff.idAt(i);
+            assertTrue(i == 0 || diff.idAt(i - 1) < card, "ids ascend");
+            assertEquals(deck1.count(card), diff.deck1CountAt(i));
+            assertEquals(deck2.count(card), diff.deck2CountAt(i));
+        }
+    }
+
+    @Test
+    void identicalDecksHaveOnlyCommonCards() {
+        Deck deck = deck(SOL_RING, 1, ISLAND, 10);
+
+        DeckDiff diff = DeckComparer.diff(deck, deck);
+
+        assertTrue(diff.deck1Only.isEmpty());
+        assertTrue(diff.deck2Only.isEmpty());
+        assertDeck(diff.common, SOL_RING, 1, ISLAND, 10);
+    }
+
+    @Test
+    void emptyDeckLeavesTheOtherUnmatched() {
+        Deck deck = deck(ISLAND, 10, PLAINS, 3);
+        Deck empty = Deck.empty(DICTIONARY);
+
+        DeckDiff diff = DeckComparer.diff(empty, deck);
+
+        assertTrue(diff.deck1Only.isEmpty());
+        assertTrue(diff.common.isEmpty());
+        assertDeck(diff.deck2Only, ISLAND, 10, PLAINS, 3);
+        assertEquals(0, DeckComparer.diff(empty, empty).size());
+    }
+
+    @Test
+    void partitionsRebuildBothDecksOnRandomInput() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            Deck deck1 = randomDeck(random);
+            Deck deck2 = randomDeck(random);
+
+            DeckDiff diff = DeckComparer.diff(deck1, deck2);
+
+            for (int card = 0; card < 30; card++) {
+                int count1 = deck1.count(card);
+                int count2 = deck2.count(card);
+                assertEquals(Math.max(0, count1 - count2), diff.deck1Only.count(card));
+                assertEquals(Math.max(0, count2 - count1), diff.deck2Only.count(card));
+                assertEquals(Math.min(count1, count2), diff.common.count(card));
+                assertEquals(count2 - count1, diff.delta(card));
+            }
+        }
+    }
+
+    // ---------------
+    // Helper Methods
+    // ---------------
+
+    /**
+     * @param entries - alternating card id, count
+     */
+    private static Deck deck(int... entries) {
+        Deck.Builder builder = new Deck.Builder(DICTIONARY);
+        for (int i = 0; i < entries.length; i += 2) {
+            builder.add(entries[i], entries[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static Deck randomDeck(Random random) {
+        Deck.Builder builder = new Deck.Builder(DICTIONARY);
+        int cards = random.nextInt(20);
+        for (int i = 0; i < cards; i++) {
+            builder.add(random.nextInt(30), 1 + random.nextInt(4));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param expected - alternating card id, count
+     */
+    private static void assertDeck(Deck deck, int... expected) {
+        assertEquals(expected.length / 2, deck.size());
+        for (int i = 0; i < expected.length; i += 2) {
+            assertEquals(expected[i + 1], deck.count(expected[i]), deck.name(expected[i]));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.deckdiffer.parsing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.deckdiffer.cards.CardDictionary;
+
+class DeckParserTest {
+
+    private static final CardDictionary DICTIONARY = CardDictionary.forRequest();
+
+    @Test
+    void readsCountsAndNames() {
+        Deck deck = DeckParser.parse("4 Lightning Bolt\r\n\n  2   Island  \nSol Ring\n# a comment\n", DICTIONARY);
+
+        assertEquals(3, deck.size());
+        assertEquals(4, deck.count(DICTIONARY.idOf("Lightning Bolt")));
+        assertEquals(2, deck.count(DICTIONARY.idOf("Island")));
+        assertEquals(1, deck.count(DICTIONARY.idOf("Sol Ring")));
+    }
+
+    @Test
+    void stripsAlternateFacesAndSumsRepeats() {
+        Deck deck = DeckParser.parse("1 Fire // Ice\n2 Fire", DICTIONARY);
+
+        assertEquals(1, deck.size());
+        assertEquals(3, deck.count(DICTIONARY.idOf("Fire")));
+    }
+
+    @Test
+    void skipsLinesWithoutANameAfterStripping() {
+        int sizeBefore = DICTIONARY.size();
+        Deck deck = DeckParser.parse("// Sideboard\n1 //\n3\n1 Counterspell", DICTIONARY);
+
+        assertEquals(1, deck.size());
+        assertEquals(1, deck.count(DICTIONARY.idOf("Counterspell")));
+        for (int i = 0; i < deck.size(); i++) {
+            assertFalse(deck.name(deck.idAt(i)).isEmpty());
+        }
+        assertTrue(DICTIONARY.size() <= sizeBefore + 1, "no id is interned for an empty name");
+    }
+
+    @Test
+    void nullTextIsAnEmptyDeck() {
+        assertTrue(DeckParser.parse(null, DICTIONARY).isEmpty());
+    }
+}
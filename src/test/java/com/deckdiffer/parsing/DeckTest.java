@@ -0,0 +1,95 @@
+package com.deckdiffer.parsing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.deckdiffer.cards.CardDictionary;
+
+class DeckTest {
+
+    private static final CardDictionary DICTIONARY = CardDictionary.forRequest();
+
+    @Test
+    void keepsAscendingInputAsGiven() {
+        Deck deck = builder().add(1, 4).add(3, 1).add(8, 2).build();
+
+        assertArrayEquals(new int[]{1, 3, 8}, deck.ids());
+        assertEquals(4, deck.count(1));
+        assertEquals(7, deck.totalCount());
+    }
+
+    @Test
+    void sortsUnsortedInput() {
+        Deck deck = builder().add(9, 1).add(2, 3).add(5, 2).add(0, 1).build();
+
+        assertArrayEquals(new int[]{0, 2, 5, 9}, deck.ids());
+        assertEquals(3, deck.count(2));
+        assertEquals(2, deck.countAt(2));
+    }
+
+    @Test
+    void sumsRepeatedIds() {
+        Deck adjacent = builder().add(4, 1).add(4, 2).build();
+        Deck scattered = builder().add(4, 1).add(1, 1).add(4, 2).add(1, 5).build();
+
+        assertArrayEquals(new int[]{4}, adjacent.ids());
+        assertEquals(3, adjacent.count(4));
+        assertArrayEquals(new int[]{1, 4}, scattered.ids());
+        assertEquals(6, scattered.count(1));
+        assertEquals(3, scattered.count(4));
+    }
+
+    @Test
+    void dropsCardsWithoutPositiveCount() {
+        Deck deck = builder().add(3, 0).add(1, -2).add(7, 2).add(7, -2).add(5, 1).build();
+
+        assertArrayEquals(new int[]{5}, deck.ids());
+        assertFalse(deck.contains(3));
+        assertEquals(0, deck.count(1));
+        assertEquals(1, deck.totalCount());
+    }
+
+    @Test
+    void emptyBuilderBuildsAnEmptyDeck() {
+        Deck deck = builder().build();
+
+        assertTrue(deck.isEmpty());
+        assertEquals(0, deck.totalCount());
+        assertEquals(0, Deck.empty(DICTIONARY).size());
+    }
+
+    @Test
+    void matchesASortedMapOnRandomInput() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Deck.Builder builder = builder();
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            int entries = random.nextInt(100);
+            for (int i = 0; i < entries; i++) {
+                int id = random.nextInt(40);
+                int count = random.nextInt(5) - 1;
+                builder.add(id, count);
+                expected.merge(id, count, Integer::sum);
+            }
+            expected.values().removeIf(count -> count <= 0);
+
+            Deck deck = builder.build();
+            List<Integer> ids = new ArrayList<>();
+            deck.forEach((id, count) -> {
+                ids.add(id);
+                assertEquals(expected.get(id), count);
+            });
+            assertEquals(new ArrayList<>(expected.keySet()), ids);
+        }
+    }
+
+    private static Deck.Builder builder() {
+        return new Deck.Builder(DICTIONARY);
+    }
+}